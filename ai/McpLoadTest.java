@@ -0,0 +1,456 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 21+
+
+import com.sun.tools.attach.VirtualMachine;
+import com.sun.tools.attach.VirtualMachineDescriptor;
+
+import javax.management.MBeanServerConnection;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Opens an increasing number of MCP clients against {@code McpServerSseQuarkusHello} (SSE) or
+ * {@code McpServerStdioQuarkusHello} (one spawned process per client), each sending a mix of
+ * {@code say_hello}, {@code say_hello_prompt} and {@code hello} resource requests back to back.
+ * <p>
+ * Reports, per stage : requests/s, latency percentiles, errors, and the server heap and GC activity (through the Attach API).
+ * Stops at the first stage whose error rate is over {@code max_error_rate}.
+ * <pre>
+ * jbang -Dtransport=sse -Durl=http://localhost:8080/mcp/sse -Dclients=1,10,100,500,1000 -Dduration=PT30S mcp-load-test@nzuguem
+ * jbang -Dtransport=stdio -Dcommand="jbang mcp-stdio-q-hello@nzuguem" -Dclients=1,5,10 mcp-load-test@nzuguem
+ * </pre>
+ */
+public class McpLoadTest {
+
+    static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    static final Pattern ERROR = Pattern.compile("\"error\"\\s*:\\s*\\{|\"isError\"\\s*:\\s*true");
+
+    enum Operation {
+        TOOL("tools/call", """
+                {"name":"say_hello","arguments":{"name":"Kevin"}}"""),
+        PROMPT("prompts/get", """
+                {"name":"say_hello_prompt","arguments":{"name":"Kevin"}}"""),
+        RESOURCE("resources/read", """
+                {"uri":"file:///hello.txt"}""");
+
+        final String method;
+        final String params;
+
+        Operation(String method, String params) {
+            this.method = method;
+            this.params = params;
+        }
+    }
+
+    record StageResult(int clients, long requests, long errors, long failedClients, double seconds, long[] latenciesNanos,
+                       ServerStats before, ServerStats after) {
+    }
+
+    record ServerStats(long heapUsed, long heapCommitted, long gcCount, long gcMillis) {
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        var transport = System.getProperty("transport", "sse");
+        var stages = Arrays.stream(System.getProperty("clients", "1,10,50,100,250,500,1000").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        var duration = Duration.parse(System.getProperty("duration", "PT30S"));
+        var maxErrorRate = Double.parseDouble(System.getProperty("max_error_rate", "0.05"));
+        // Weights of tool, prompt and resource requests
+        var mix = mix(System.getProperty("mix", "TOOL:1,PROMPT:1,RESOURCE:1"));
+
+        System.out.printf("transport=%s clients=%s duration=%s mix=%s%n",
+                transport, Arrays.toString(stages), duration, System.getProperty("mix", "TOOL:1,PROMPT:1,RESOURCE:1"));
+
+        var server = "sse".equals(transport) ? ServerMonitor.attach(Long.getLong("server_pid")) : null;
+
+        for (var clients : stages) {
+            var result = stage(transport, clients, duration, mix, server);
+            print(result);
+            if (result.errors() + result.failedClients() > maxErrorRate * Math.max(1, result.requests() + result.failedClients())) {
+                System.out.printf("%nError rate over %.1f%% with %d clients : stopping%n", maxErrorRate * 100, clients);
+                break;
+            }
+        }
+
+        if (!Objects.isNull(server)) {
+            server.close();
+        }
+    }
+
+    static StageResult stage(String transport, int clientCount, Duration duration, Operation[] mix, ServerMonitor server) throws Exception {
+
+        var latencies = new ConcurrentLinkedQueue<Long>();
+        var requests = new AtomicLong();
+        var errors = new AtomicLong();
+        var failedClients = new AtomicInteger();
+        var connected = new CountDownLatch(clientCount);
+        var start = new CountDownLatch(1);
+        var clients = new ConcurrentLinkedQueue<McpClient>();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            for (int i = 0; i < clientCount; i++) {
+                var index = i;
+                executor.submit(() -> {
+                    McpClient client;
+                    try {
+                        client = "sse".equals(transport) ? SseClient.connect() : StdioClient.spawn();
+                        clients.add(client);
+                        client.request("initialize", """
+                                {"protocolVersion":"2024-11-05","capabilities":{},"clientInfo":{"name":"mcp-load-test","version":"1.0"}}""")
+                                .get(2, TimeUnit.MINUTES);
+                        client.notify("notifications/initialized");
+                    } catch (Exception e) {
+                        failedClients.incrementAndGet();
+                        return null;
+                    } finally {
+                        connected.countDown();
+                    }
+
+                    start.await();
+                    var deadline = System.nanoTime() + duration.toNanos();
+                    var random = new Random(index);
+                    while (System.nanoTime() < deadline) {
+                        var operation = mix[random.nextInt(mix.length)];
+                        var sent = System.nanoTime();
+                        try {
+                            client.request(operation.method, operation.params).get(30, TimeUnit.SECONDS);
+                            latencies.add(System.nanoTime() - sent);
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        requests.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+
+            // Connection setup (and process spawning) is not measured
+            connected.await();
+            var statsBefore = Objects.isNull(server) ? null : server.stats();
+            var started = System.nanoTime();
+            start.countDown();
+            executor.shutdown();
+            executor.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+            var seconds = (System.nanoTime() - started) / 1e9;
+            var statsAfter = Objects.isNull(server) ? null : server.stats();
+
+            clients.forEach(McpClient::close);
+
+            return new StageResult(clientCount, requests.get(), errors.get(), failedClients.get(), seconds,
+                    latencies.stream().mapToLong(Long::longValue).sorted().toArray(), statsBefore, statsAfter);
+        }
+    }
+
+    static void print(StageResult result) {
+
+        var latencies = result.latenciesNanos();
+        System.out.printf("""
+
+                        [%d clients]
+                          throughput : %.1f requests/s
+                          latency    : p50 %.1f ms, p99 %.1f ms, p999 %.1f ms, max %.1f ms
+                          errors     : %d requests, %d clients failed to connect
+                        """,
+                result.clients(),
+                result.requests() / result.seconds(),
+                percentile(latencies, 0.50) / 1e6,
+                percentile(latencies, 0.99) / 1e6,
+                percentile(latencies, 0.999) / 1e6,
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6,
+                result.errors(),
+                result.failedClients());
+
+        if (!Objects.isNull(result.before()) && !Objects.isNull(result.after())) {
+            System.out.printf("""
+                              server     : heap %d MB used / %d MB committed, %d GCs (%.1f/s), %d ms GC time (%.1f%%)
+                            """,
+                    result.after().heapUsed() / (1024 * 1024),
+                    result.after().heapCommitted() / (1024 * 1024),
+                    result.after().gcCount() - result.before().gcCount(),
+                    (result.after().gcCount() - result.before().gcCount()) / result.seconds(),
+                    result.after().gcMillis() - result.before().gcMillis(),
+                    (result.after().gcMillis() - result.before().gcMillis()) / (result.seconds() * 10));
+        }
+    }
+
+    static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        var index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    static Operation[] mix(String mix) {
+        var operations = new ArrayList<Operation>();
+        for (var entry : mix.split(",")) {
+            var parts = entry.trim().split(":");
+            var operation = Operation.valueOf(parts[0].trim());
+            for (int i = 0; i < Integer.parseInt(parts[1].trim()); i++) {
+                operations.add(operation);
+            }
+        }
+        return operations.toArray(Operation[]::new);
+    }
+
+    /**
+     * JSON-RPC requests are matched to their responses by id : one client can have several requests in flight.
+     */
+    abstract static class McpClient implements AutoCloseable {
+
+        private final AtomicLong ids = new AtomicLong();
+
+        private final Map<Long, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+
+        CompletableFuture<String> request(String method, String params) {
+            var id = this.ids.incrementAndGet();
+            var response = new CompletableFuture<String>();
+            this.pending.put(id, response);
+            try {
+                this.send("""
+                        {"jsonrpc":"2.0","id":%d,"method":"%s","params":%s}""".formatted(id, method, params));
+            } catch (Exception e) {
+                this.pending.remove(id);
+                response.completeExceptionally(e);
+            }
+            return response;
+        }
+
+        void notify(String method) throws Exception {
+            this.send("""
+                    {"jsonrpc":"2.0","method":"%s"}""".formatted(method));
+        }
+
+        void received(String message) {
+            var id = ID.matcher(message);
+            if (!id.find()) {
+                return;
+            }
+            var response = this.pending.remove(Long.parseLong(id.group(1)));
+            if (Objects.isNull(response)) {
+                return;
+            }
+            if (ERROR.matcher(message).find()) {
+                response.completeExceptionally(new IllegalStateException(message));
+            } else {
+                response.complete(message);
+            }
+        }
+
+        void disconnected(Throwable cause) {
+            this.pending.values().forEach(response -> response.completeExceptionally(cause));
+            this.pending.clear();
+        }
+
+        abstract void send(String message) throws Exception;
+
+        @Override
+        public abstract void close();
+    }
+
+    /**
+     * GET on the SSE endpoint, whose first {@code endpoint} event gives the URL to POST messages to.
+     * Responses come back as {@code message} events on the stream.
+     */
+    static class SseClient extends McpClient {
+
+        // Shared by all clients, as agents behind a gateway would
+        static final HttpClient HTTP = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        private final CompletableFuture<URI> endpoint = new CompletableFuture<>();
+
+        private CompletableFuture<?> stream;
+
+        static SseClient connect() throws Exception {
+            var url = URI.create(System.getProperty("url", "http://localhost:8080/mcp/sse"));
+            var client = new SseClient();
+            client.stream = HTTP.sendAsync(
+                            HttpRequest.newBuilder(url).header("Accept", "text/event-stream").GET().build(),
+                            HttpResponse.BodyHandlers.ofLines())
+                    .thenAccept(response -> client.read(url, response.body().iterator()))
+                    .whenComplete((ignored, error) -> {
+                        var cause = Objects.isNull(error) ? new IOException("SSE stream closed") : error;
+                        client.endpoint.completeExceptionally(cause);
+                        client.disconnected(cause);
+                    });
+            client.endpoint.get(30, TimeUnit.SECONDS);
+            return client;
+        }
+
+        private void read(URI url, Iterator<String> lines) {
+            String event = "message";
+            var data = new StringBuilder();
+            while (lines.hasNext()) {
+                var line = lines.next();
+                if (line.startsWith("event:")) {
+                    event = line.substring(6).trim();
+                } else if (line.startsWith("data:")) {
+                    data.append(line.substring(5).trim());
+                } else if (line.isEmpty() && !data.isEmpty()) {
+                    if ("endpoint".equals(event)) {
+                        this.endpoint.complete(url.resolve(data.toString()));
+                    } else {
+                        this.received(data.toString());
+                    }
+                    event = "message";
+                    data.setLength(0);
+                }
+            }
+        }
+
+        @Override
+        void send(String message) throws Exception {
+            var response = HTTP.send(HttpRequest.newBuilder(this.endpoint.getNow(null))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(message))
+                            .build(),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                throw new IOException("HTTP " + response.statusCode());
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!Objects.isNull(this.stream)) {
+                this.stream.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * One server process per client, as MCP hosts spawn them : JSON-RPC messages are lines on stdin/stdout.
+     */
+    static class StdioClient extends McpClient {
+
+        private final Process process;
+
+        private final OutputStream stdin;
+
+        private StdioClient(Process process) {
+            this.process = process;
+            this.stdin = process.getOutputStream();
+            Thread.ofVirtual().start(this::read);
+        }
+
+        static StdioClient spawn() throws IOException {
+            var command = System.getProperty("command", "jbang mcp-stdio-q-hello@nzuguem");
+            return new StdioClient(new ProcessBuilder(command.split(" "))
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start());
+        }
+
+        private void read() {
+            try (var stdout = new BufferedReader(new InputStreamReader(this.process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = stdout.readLine()) != null) {
+                    // Anything else is logging
+                    if (line.startsWith("{")) {
+                        this.received(line);
+                    }
+                }
+                this.disconnected(new IOException("Server process exited"));
+            } catch (IOException e) {
+                this.disconnected(e);
+            }
+        }
+
+        @Override
+        synchronized void send(String message) throws IOException {
+            this.stdin.write((message + "\n").getBytes(StandardCharsets.UTF_8));
+            this.stdin.flush();
+        }
+
+        @Override
+        public void close() {
+            this.process.descendants().forEach(ProcessHandle::destroy);
+            this.process.destroy();
+        }
+    }
+
+    /**
+     * Heap and GC counters of the server JVM, read over JMX from its local management agent.
+     */
+    static class ServerMonitor implements AutoCloseable {
+
+        private final VirtualMachine vm;
+
+        private final JMXConnector connector;
+
+        private final MemoryMXBean memory;
+
+        private final List<GarbageCollectorMXBean> collectors;
+
+        private ServerMonitor(VirtualMachine vm) throws IOException {
+            this.vm = vm;
+            this.connector = JMXConnectorFactory.connect(new JMXServiceURL(vm.startLocalManagementAgent()));
+            MBeanServerConnection connection = this.connector.getMBeanServerConnection();
+            this.memory = ManagementFactory.newPlatformMXBeanProxy(connection, ManagementFactory.MEMORY_MXBEAN_NAME, MemoryMXBean.class);
+            this.collectors = ManagementFactory.getPlatformMXBeans(connection, GarbageCollectorMXBean.class);
+        }
+
+        /**
+         * @param pid server process, or {@code null} to look for a local JVM running {@code McpServerSseQuarkusHello}
+         * @return {@code null} when the server JVM cannot be attached to (e.g. remote server)
+         */
+        static ServerMonitor attach(Long pid) {
+            try {
+                var id = Objects.isNull(pid)
+                        ? VirtualMachine.list().stream()
+                        .filter(descriptor -> descriptor.displayName().contains("McpServerSseQuarkusHello"))
+                        .map(VirtualMachineDescriptor::id)
+                        .findFirst()
+                        .orElse(null)
+                        : pid.toString();
+                if (Objects.isNull(id)) {
+                    System.out.println("Server JVM not found (set -Dserver_pid) : no heap/GC report");
+                    return null;
+                }
+                return new ServerMonitor(VirtualMachine.attach(id));
+            } catch (Exception e) {
+                System.out.println("Cannot attach to the server JVM : no heap/GC report (" + e.getMessage() + ")");
+                return null;
+            }
+        }
+
+        ServerStats stats() {
+            var heap = this.memory.getHeapMemoryUsage();
+            return new ServerStats(heap.getUsed(), heap.getCommitted(),
+                    this.collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum(),
+                    this.collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum());
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.connector.close();
+            this.vm.detach();
+        }
+    }
+}
@@ -5,17 +5,87 @@
 //DEPS io.quarkiverse.mcp:quarkus-mcp-server-stdio:1.0.0.Alpha2
 
 import io.quarkiverse.mcp.server.*;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.io.IOException;
 import java.net.URI;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class McpServerStdioQuarkusHello {
 
+    @Inject
+    ResourceCache resourceCache;
+
+    @Inject
+    ResourceCatalog resourceCatalog;
+
+    @ConfigProperty(name = "mcp.hello.batch.max-concurrency", defaultValue = "32")
+    int batchMaxConcurrency;
+
+    @ConfigProperty(name = "mcp.hello.batch.max-size", defaultValue = "1000")
+    int batchMaxSize;
+
     @Tool(name = "say_hello")
     ToolResponse sayHello(@ToolArg String name) {
-        return ToolResponse.success(new TextContent("Hello %s !".formatted(name)));
+        return ToolResponse.success(new TextContent(greeting(name)));
+    }
+
+    @Tool(name = "say_hello_batch", description = "Says hello to several people at once, one content item per name, in the same order")
+    ToolResponse sayHelloBatch(@ToolArg(description = "Names to greet") List<String> names) {
+
+        if (Objects.isNull(names) || names.isEmpty() || names.size() > this.batchMaxSize) {
+            return ToolResponse.error("Between 1 and %d names expected".formatted(this.batchMaxSize));
+        }
+
+        // Processed concurrently on virtual threads, bounded by a semaphore. A failed name does not fail the batch
+        var permits = new Semaphore(this.batchMaxConcurrency);
+
+        List<Content> contents;
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            contents = names.stream()
+                    .map(name -> CompletableFuture.supplyAsync(() -> greet(name, permits), executor))
+                    .toList()
+                    .stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+        }
+
+        return ToolResponse.success(contents.toArray(Content[]::new));
+    }
+
+    private static Content greet(String name, Semaphore permits) {
+        if (Objects.isNull(name) || name.isBlank()) {
+            return new TextContent("Error for %s : name must not be blank".formatted(name));
+        }
+        try {
+            permits.acquire();
+            try {
+                return new TextContent(greeting(name));
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new TextContent("Error for %s : interrupted".formatted(name));
+        } catch (RuntimeException e) {
+            return new TextContent("Error for %s : %s".formatted(name, e.getMessage()));
+        }
+    }
+
+    private static String greeting(String name) {
+        return "Hello %s !".formatted(name);
     }
 
     @Prompt(name = "say_hello_prompt")
@@ -26,7 +96,292 @@ public class McpServerStdioQuarkusHello {
 
     @Resource(name = "hello", uri = "file:///hello.txt")
     BlobResourceContents hello(String uri) throws IOException {
-        return BlobResourceContents.create(uri, Files.readAllBytes(Paths.get(URI.create(uri))));
+        return this.resourceCache.get(uri, Paths.get(URI.create(uri)));
+    }
+
+    @ResourceTemplate(name = "file", uriTemplate = "file:///{path}")
+    BlobResourceContents file(String path) throws IOException {
+        // Files already read are served without touching the disk : the cache drops them as soon as they change
+        var cached = this.resourceCache.cached(this.resourceCatalog.path(path));
+        if (!Objects.isNull(cached)) {
+            return cached;
+        }
+        return this.resourceCache.get("file:///" + path, this.resourceCatalog.file(path));
+    }
+
+    @ResourceTemplate(name = "file_chunk", uriTemplate = "chunk:///{index}/{path}")
+    BlobResourceContents fileChunk(String index, String path) throws IOException {
+        return BlobResourceContents.create(
+                "chunk:///%s/%s".formatted(index, path),
+                this.resourceCatalog.chunk(path, Integer.parseInt(index)));
+    }
+
+    @Tool(name = "list_files", description = "Lists the files served as resources, one page at a time")
+    ToolResponse listFiles(@ToolArg(description = "nextCursor of the previous page", required = false) String cursor) throws IOException {
+        return ToolResponse.success(this.resourceCatalog.list(cursor).toArray(Content[]::new));
+    }
+
+    /**
+     * Files under {@code mcp.resources.root}, served as {@code file:///{path}} up to {@code mcp.resources.max-size} bytes,
+     * and as {@code chunk:///{index}/{path}} slices of {@code mcp.resources.chunk-size} bytes whatever their size.
+     * Disabled unless {@code mcp.resources.root} is set.
+     */
+    @Singleton
+    public static class ResourceCatalog {
+
+        private final Optional<Path> root;
+
+        private final long maxSize;
+
+        private final int chunkSize;
+
+        private final int pageSize;
+
+        public ResourceCatalog(
+                @ConfigProperty(name = "mcp.resources.root") Optional<String> root,
+                @ConfigProperty(name = "mcp.resources.max-size", defaultValue = "1048576") long maxSize,
+                @ConfigProperty(name = "mcp.resources.chunk-size", defaultValue = "524288") int chunkSize,
+                @ConfigProperty(name = "mcp.resources.page-size", defaultValue = "100") int pageSize) throws IOException {
+            this.root = root.isPresent() ? Optional.of(Path.of(root.get()).toRealPath()) : Optional.empty();
+            this.maxSize = maxSize;
+            this.chunkSize = chunkSize;
+            this.pageSize = pageSize;
+        }
+
+        /**
+         * Resolves the path under the root without touching the disk, e.g. to look it up in the {@link ResourceCache}.
+         */
+        public Path path(String path) {
+            var file = this.root().resolve(path).normalize();
+            if (!file.startsWith(this.root())) {
+                throw new IllegalArgumentException("No such resource : " + path);
+            }
+            return file;
+        }
+
+        public Path file(String path) throws IOException {
+            var file = this.resolve(path);
+            var size = Files.size(file);
+            if (size > this.maxSize) {
+                throw new IllegalArgumentException("%s is %d bytes, over the %d bytes limit : read it with chunk:///{index}/%s (%d chunks)"
+                        .formatted(path, size, this.maxSize, path, (size + this.chunkSize - 1) / this.chunkSize));
+            }
+            return file;
+        }
+
+        public byte[] chunk(String path, int index) throws IOException {
+
+            var file = this.resolve(path);
+
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                var position = (long) index * this.chunkSize;
+                if (index < 0 || position >= Math.max(1, channel.size())) {
+                    throw new IllegalArgumentException("Chunk %d out of range for %s".formatted(index, path));
+                }
+                var buffer = ByteBuffer.allocate((int) Math.min(this.chunkSize, channel.size() - position));
+                while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) >= 0) {
+                    // Positional reads : the whole file is never loaded
+                }
+                return Arrays.copyOf(buffer.array(), buffer.position());
+            }
+        }
+
+        /**
+         * Walks the tree depth first in name order, resuming after the cursor, and stops once a page is full :
+         * only one directory listing is held in memory at a time.
+         */
+        public List<Content> list(String cursor) throws IOException {
+
+            var after = Objects.isNull(cursor) || cursor.isBlank()
+                    ? List.<String>of()
+                    : List.of(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("/"));
+
+            var page = new ArrayList<Path>(this.pageSize + 1);
+            this.walk(this.root(), after, page);
+
+            var contents = new ArrayList<Content>(page.size());
+            for (var file : page.subList(0, Math.min(page.size(), this.pageSize))) {
+                contents.add(new TextContent("file:///%s (%d bytes)".formatted(this.relative(file), Files.size(file))));
+            }
+            if (page.size() > this.pageSize) {
+                var last = this.relative(page.get(this.pageSize - 1));
+                contents.add(new TextContent("nextCursor: " + Base64.getUrlEncoder().encodeToString(last.getBytes(StandardCharsets.UTF_8))));
+            }
+            return contents;
+        }
+
+        private void walk(Path directory, List<String> after, List<Path> page) throws IOException {
+
+            List<Path> children;
+            try (var stream = Files.list(directory)) {
+                children = stream.sorted(Comparator.comparing(child -> child.getFileName().toString())).toList();
+            }
+
+            for (var child : children) {
+
+                // One more than a page, to know whether there is a next one
+                if (page.size() > this.pageSize) {
+                    return;
+                }
+
+                var name = child.getFileName().toString();
+                var remaining = List.<String>of();
+                if (!after.isEmpty()) {
+                    var comparison = name.compareTo(after.getFirst());
+                    if (comparison < 0) {
+                        continue;
+                    }
+                    if (comparison == 0) {
+                        remaining = after.subList(1, after.size());
+                        if (remaining.isEmpty()) {
+                            // The cursor itself, already listed
+                            continue;
+                        }
+                    }
+                }
+
+                if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                    this.walk(child, remaining, page);
+                } else if (Files.isRegularFile(child, LinkOption.NOFOLLOW_LINKS)) {
+                    page.add(child);
+                }
+            }
+        }
+
+        private Path resolve(String path) throws IOException {
+            var file = this.path(path);
+            // Also rejects symbolic links pointing out of the root
+            if (!file.toRealPath().startsWith(this.root()) || !Files.isRegularFile(file)) {
+                throw new IllegalArgumentException("No such resource : " + path);
+            }
+            return file;
+        }
+
+        private Path root() {
+            return this.root.orElseThrow(() -> new IllegalArgumentException("File resources are disabled : set mcp.resources.root"));
+        }
+
+        private String relative(Path file) {
+            return this.root().relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+        }
+    }
+
+    /**
+     * Keeps the encoded contents of file resources in memory, bounded by {@code mcp.resource-cache.max-bytes}
+     * and evicted in least recently used order.
+     * Entries are invalidated by a {@link WatchService} on their parent directory when the file changes.
+     */
+    @Singleton
+    public static class ResourceCache implements AutoCloseable {
+
+        private final long maxBytes;
+
+        private final WatchService watchService;
+
+        private final Set<Path> watchedDirectories = ConcurrentHashMap.newKeySet();
+
+        private final Map<Path, BlobResourceContents> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private long bytes;
+
+        // Bumped on every invalidation, so a file read concurrently with a change is not cached
+        private final AtomicLong generation = new AtomicLong();
+
+        private final Thread watcher;
+
+        public ResourceCache(@ConfigProperty(name = "mcp.resource-cache.max-bytes", defaultValue = "67108864") long maxBytes) throws IOException {
+            this.maxBytes = maxBytes;
+            this.watchService = FileSystems.getDefault().newWatchService();
+            this.watcher = Thread.ofPlatform().daemon().name("mcp-resource-watcher").start(this::watch);
+        }
+
+        public synchronized BlobResourceContents cached(Path path) {
+            return this.entries.get(path);
+        }
+
+        public BlobResourceContents get(String uri, Path path) throws IOException {
+
+            var cached = this.cached(path);
+            if (!Objects.isNull(cached)) {
+                return cached;
+            }
+
+            // Watch before reading : a change during the read invalidates it
+            this.watch(path.toAbsolutePath().getParent());
+            var generation = this.generation.get();
+            var contents = BlobResourceContents.create(uri, Files.readAllBytes(path));
+
+            synchronized (this) {
+                var size = contents.blob().length();
+                if (generation == this.generation.get() && size <= this.maxBytes) {
+                    this.bytes += size;
+                    var previous = this.entries.put(path, contents);
+                    if (!Objects.isNull(previous)) {
+                        this.bytes -= previous.blob().length();
+                    }
+                    this.evict();
+                }
+            }
+
+            return contents;
+        }
+
+        public synchronized void invalidate(Path path) {
+            this.generation.incrementAndGet();
+            var previous = this.entries.remove(path);
+            if (!Objects.isNull(previous)) {
+                this.bytes -= previous.blob().length();
+            }
+        }
+
+        public synchronized void invalidateAll() {
+            this.generation.incrementAndGet();
+            this.entries.clear();
+            this.bytes = 0;
+        }
+
+        private void evict() {
+            var iterator = this.entries.values().iterator();
+            while (this.bytes > this.maxBytes && iterator.hasNext()) {
+                this.bytes -= iterator.next().blob().length();
+                iterator.remove();
+            }
+        }
+
+        private void watch(Path directory) throws IOException {
+            if (this.watchedDirectories.add(directory)) {
+                directory.register(this.watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+
+        private void watch() {
+            try {
+                while (true) {
+                    var key = this.watchService.take();
+                    var directory = (Path) key.watchable();
+                    for (var event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            this.invalidateAll();
+                        } else {
+                            this.invalidate(directory.resolve((Path) event.context()));
+                        }
+                    }
+                    if (!key.reset()) {
+                        this.watchedDirectories.remove(directory);
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // Closed
+            }
+        }
+
+        @PreDestroy
+        @Override
+        public void close() throws IOException {
+            this.watchService.close();
+            this.watcher.interrupt();
+        }
     }
 
 }
\ No newline at end of file
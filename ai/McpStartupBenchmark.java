@@ -0,0 +1,138 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 21+
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Spawns the stdio MCP server as MCP hosts do, once per session, and measures the time from spawn to the
+ * {@code initialize} response, and the resident memory (RSS) of the server right after it.
+ * <p>
+ * Each mode is a command line : JVM ({@code mcp-stdio-q-hello}), AppCDS ({@code mcp-stdio-q-hello-cds})
+ * and native executable ({@code mcp-stdio-q-hello-native}) by default. The first runs of each mode are warmup
+ * (jbang resolution and build, CDS archive creation) and not reported.
+ * <pre>
+ * jbang -Druns=10 -Dwarmup=2 -Dmodes=jvm,cds mcp-startup-benchmark@nzuguem
+ * jbang -Dmode.custom="java -jar server-runner.jar" -Dmodes=custom mcp-startup-benchmark@nzuguem
+ * </pre>
+ */
+public class McpStartupBenchmark {
+
+    static final Map<String, String> COMMANDS = Map.of(
+            "jvm", "jbang mcp-stdio-q-hello@nzuguem",
+            "cds", "jbang mcp-stdio-q-hello-cds@nzuguem",
+            "native", "jbang mcp-stdio-q-hello-native@nzuguem");
+
+    static final String INITIALIZE = """
+            {"jsonrpc":"2.0","id":1,"method":"initialize","params":{"protocolVersion":"2024-11-05","capabilities":{},"clientInfo":{"name":"mcp-startup-benchmark","version":"1.0"}}}""";
+
+    static final Pattern INITIALIZE_RESPONSE = Pattern.compile("\"id\"\\s*:\\s*1\\b");
+
+    record Run(long initializeNanos, long rssKiloBytes) {
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        var runs = Integer.getInteger("runs", 10);
+        var warmup = Integer.getInteger("warmup", 1);
+        var modes = System.getProperty("modes", "jvm,cds,native").split(",");
+
+        System.out.printf("runs=%d warmup=%d%n", runs, warmup);
+
+        for (var mode : modes) {
+
+            var command = System.getProperty("mode." + mode.trim(), COMMANDS.get(mode.trim()));
+            if (Objects.isNull(command)) {
+                throw new IllegalArgumentException("Unknown mode %s : set -Dmode.%s=<command>".formatted(mode, mode));
+            }
+
+            for (int i = 0; i < warmup; i++) {
+                run(command);
+            }
+
+            var results = new ArrayList<Run>(runs);
+            for (int i = 0; i < runs; i++) {
+                results.add(run(command));
+            }
+
+            var times = results.stream().mapToLong(Run::initializeNanos).sorted().toArray();
+            var rss = results.stream().mapToLong(Run::rssKiloBytes).sorted().toArray();
+            System.out.printf("""
+
+                            [%s] %s
+                              initialize : min %.0f ms, p50 %.0f ms, max %.0f ms
+                              rss        : min %.1f MB, p50 %.1f MB, max %.1f MB
+                            """,
+                    mode, command,
+                    times[0] / 1e6, times[times.length / 2] / 1e6, times[times.length - 1] / 1e6,
+                    rss[0] / 1024.0, rss[rss.length / 2] / 1024.0, rss[rss.length - 1] / 1024.0);
+        }
+    }
+
+    static Run run(String command) throws Exception {
+
+        var start = System.nanoTime();
+        var process = new ProcessBuilder(command.split(" "))
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        try {
+            // Sent right away, as a host would : the server reads it once started
+            process.getOutputStream().write((INITIALIZE + "\n").getBytes(StandardCharsets.UTF_8));
+            process.getOutputStream().flush();
+
+            var initialized = CompletableFuture.supplyAsync(() -> {
+                try (var stdout = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = stdout.readLine()) != null) {
+                        if (line.startsWith("{") && INITIALIZE_RESPONSE.matcher(line).find()) {
+                            return System.nanoTime();
+                        }
+                    }
+                    throw new IllegalStateException("Server exited before answering initialize");
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, Thread::startVirtualThread);
+
+            var initializeNanos = initialized.get(5, TimeUnit.MINUTES) - start;
+
+            return new Run(initializeNanos, rss(process.toHandle()));
+        } finally {
+            process.descendants().forEach(ProcessHandle::destroy);
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * RSS of the process tree : jbang may launch the server as a child process.
+     */
+    static long rss(ProcessHandle process) {
+        return Stream.concat(Stream.of(process), process.descendants())
+                .mapToLong(McpStartupBenchmark::vmRss)
+                .sum();
+    }
+
+    static long vmRss(ProcessHandle process) {
+        try (var lines = Files.lines(Path.of("/proc", String.valueOf(process.pid()), "status"))) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                    .findFirst()
+                    .orElse(0);
+        } catch (IOException | UncheckedIOException e) {
+            // Linux only, or the process is gone
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 21+
+//SOURCES MainSpringBoot.java
+//DEPS io.temporal:temporal-testing:1.27.0
+//DEPS io.opentelemetry:opentelemetry-sdk-testing
+
+
+package temporal.hello;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.temporal.api.enums.v1.IndexedValueType;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowStub;
+import io.temporal.opentracing.OpenTracingClientInterceptor;
+import io.temporal.opentracing.OpenTracingWorkerInterceptor;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.WorkerFactoryOptions;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static temporal.hello.MainSpringBoot.*;
+
+/**
+ * Checks that greetings are traced end to end with the tracing interceptors of the Spring Boot variant : each workflow
+ * is started under a server span standing for the {@code /hello/{name}} request, and its workflow, signal and
+ * translation activity spans are expected in the same trace. Spans are kept by an in-memory exporter, on the in-memory
+ * Temporal test server.
+ * <p>
+ * Prints the span tree of the first trace and exits with 1 when a sampled trace misses a span.
+ * <pre>
+ * jbang -Dsignal=true -Dfault_error_rate=0.5 temporal-say-hello-tracing-check@nzuguem
+ * jbang -Dworkflows=200 -Dsampling_ratio=0.1 temporal-say-hello-tracing-check@nzuguem
+ * </pre>
+ */
+public class HelloTracingCheck {
+
+    static final String ROOT = "GET /hello/{name}";
+
+    static final List<String> EXPECTED = List.of(
+            "StartWorkflow:HelloWorkflow",
+            "RunWorkflow:HelloWorkflow",
+            "StartActivity:TranslateHello",
+            "RunActivity:TranslateHello");
+
+    public static void main(String[] args) throws Exception {
+
+        var workflows = Integer.getInteger("workflows", 1);
+        var samplingRatio = Double.parseDouble(System.getProperty("sampling_ratio", "1.0"));
+        var signal = Boolean.getBoolean("signal");
+        var errorRate = Double.parseDouble(System.getProperty("fault_error_rate", "0"));
+
+        var exporter = InMemorySpanExporter.create();
+        var tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(samplingRatio)))
+                .build();
+        var openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(tracerProvider)
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+        var tracingOptions = helloTracingOptions(openTelemetry);
+
+        var testEnv = TestWorkflowEnvironment.newInstance(TestEnvironmentOptions.newBuilder()
+                .setWorkflowClientOptions(WorkflowClientOptions.newBuilder()
+                        .setInterceptors(new OpenTracingClientInterceptor(tracingOptions))
+                        .build())
+                .setWorkerFactoryOptions(WorkerFactoryOptions.newBuilder()
+                        .setWorkerInterceptors(new OpenTracingWorkerInterceptor(tracingOptions))
+                        .build())
+                .registerSearchAttribute(
+                        CorporateSearchAttributes.HELLO_WORKFLOW_STATUS.getName(),
+                        IndexedValueType.INDEXED_VALUE_TYPE_KEYWORD)
+                .build());
+
+        var translationActivity = new HelloTranslationActivityImpl(
+                new FaultInjection(errorRate, Duration.ZERO, "TranslateServiceUnavailable", false, 42L),
+                new StaticTranslationBackend(),
+                false,
+                new HelloWorkflowMetrics(new SimpleMeterRegistry()),
+                testEnv.getWorkflowClient());
+        var workflowWorker = testEnv.newWorker("hello-workflow-task-queue");
+        workflowWorker.registerWorkflowImplementationTypes(HelloWorkflowImpl.class);
+        workflowWorker.registerActivitiesImplementations(translationActivity);
+        testEnv.newWorker("hello-translation-task-queue")
+                .registerActivitiesImplementations(translationActivity);
+        testEnv.start();
+
+        var tracer = openTelemetry.getTracer("hello-tracing-check");
+        try {
+            for (int i = 0; i < workflows; i++) {
+                var span = tracer.spanBuilder(ROOT).setSpanKind(SpanKind.SERVER).startSpan();
+                // Closed explicitly : the scope is never referenced in the body of a try-with-resources
+                var scope = span.makeCurrent();
+                try {
+                    sayHello(testEnv.getWorkflowClient(), signal);
+                } finally {
+                    scope.close();
+                    span.end();
+                }
+            }
+        } finally {
+            testEnv.close();
+            tracerProvider.forceFlush();
+        }
+
+        var traces = exporter.getFinishedSpanItems().stream()
+                .collect(Collectors.groupingBy(SpanData::getTraceId, LinkedHashMap::new, Collectors.toList()));
+        var incomplete = traces.values().stream()
+                .filter(spans -> !spans.stream().map(SpanData::getName).collect(Collectors.toSet()).containsAll(EXPECTED))
+                .count();
+
+        traces.values().stream().findFirst().ifPresent(HelloTracingCheck::print);
+
+        System.out.printf("""
+
+                        sampled  : %d/%d traces (sampling ratio %.2f)
+                        complete : %d/%d traces
+                        """,
+                traces.size(), workflows, samplingRatio,
+                traces.size() - incomplete, traces.size());
+
+        if (incomplete > 0) {
+            System.out.printf("Missing spans, expected in each trace : %s%n", EXPECTED);
+            System.exit(1);
+        }
+    }
+
+    static void sayHello(WorkflowClient client, boolean signal) {
+
+        var workflow = client.newWorkflowStub(HelloWorkflow.class,
+                WorkflowOptions.newBuilder()
+                        .setWorkflowId("tracing-%s".formatted(UUID.randomUUID()))
+                        .setTaskQueue("hello-workflow-task-queue").build());
+
+        if (signal) {
+            WorkflowClient.start(workflow::sayHello, HelloRequest.of("Kevin", null));
+            workflow.langageCode(LangageCode.es);
+        } else {
+            WorkflowClient.start(workflow::sayHello, HelloRequest.of("Kevin", LangageCode.es));
+        }
+        WorkflowStub.fromTyped(workflow).getResult(HelloResponse.class);
+    }
+
+    static void print(List<SpanData> trace) {
+
+        var children = trace.stream()
+                .collect(Collectors.groupingBy(SpanData::getParentSpanId));
+        var spanIds = trace.stream().map(SpanData::getSpanId).collect(Collectors.toSet());
+        var start = trace.stream().mapToLong(SpanData::getStartEpochNanos).min().orElse(0);
+
+        System.out.printf("%ntrace %s%n", trace.getFirst().getTraceId());
+        trace.stream()
+                .filter(span -> !spanIds.contains(span.getParentSpanId()))
+                .forEach(root -> print(root, children, start, 0));
+    }
+
+    static void print(SpanData span, Map<String, List<SpanData>> children, long start, int depth) {
+
+        System.out.printf("  %-50s +%8.2f ms %8.2f ms%n",
+                "  ".repeat(depth) + span.getName(),
+                (span.getStartEpochNanos() - start) / 1e6,
+                (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1e6);
+
+        children.getOrDefault(span.getSpanId(), List.of()).stream()
+                .sorted(Comparator.comparingLong(SpanData::getStartEpochNanos))
+                .forEach(child -> print(child, children, start, depth + 1));
+    }
+}
@@ -0,0 +1,244 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 21+
+//SOURCES MainSpringBoot.java
+//DEPS io.temporal:temporal-testing:1.27.0
+
+
+package temporal.hello;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.api.enums.v1.IndexedValueType;
+import io.temporal.api.enums.v1.WorkflowIdConflictPolicy;
+import io.temporal.client.UpdateOptions;
+import io.temporal.client.WithStartWorkflowOperation;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowStub;
+import io.temporal.client.WorkflowUpdateStage;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.WorkerOptions;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static temporal.hello.MainSpringBoot.*;
+
+/**
+ * Drives {@link HelloWorkflow} end to end on the in-memory Temporal test server and reports
+ * throughput, start-to-completion latency, history size and allocation rate, for one or more injected error rates.
+ * <p>
+ * The workflow and activity code is the same in the Quarkus and Spring Boot variants, the Spring Boot one is used here.
+ * <pre>
+ * jbang -Dworkflows=2000 -Dconcurrency=100 -Dpath=SIGNAL -Dtranslation_mode=LOCAL_ACTIVITY -Dstatus_tracking=COALESCED temporal-say-hello-benchmark@nzuguem
+ * jbang -Dpath=DIRECT -Dretry_profile=LOW_LATENCY -Dfault_error_rates=0,0.1,0.3,0.5 -Dfault_seed=42 temporal-say-hello-benchmark@nzuguem
+ * jbang -Dpath=DIRECT -Dfault_error_rates=0 -Dfault_latency=PT0.2S -Dactivity_slots=10 -Dtranslation_async_completion=true temporal-say-hello-benchmark@nzuguem
+ * </pre>
+ */
+public class HelloWorkflowBenchmark {
+
+    enum BenchmarkPath {
+        // langageCode given at start
+        DIRECT,
+        // langageCode sent as a signal after start
+        SIGNAL,
+        // start and langageCode signal in one call
+        SIGNAL_WITH_START,
+        // start, langageCode and greeting in one call
+        UPDATE_WITH_START
+    }
+
+    record BenchmarkResult(BenchmarkPath path, int workflows, long elapsedNanos, long[] latenciesNanos,
+                           double historyEventsPerWorkflow, long allocatedBytes) {
+    }
+
+    static final LangageCode[] LANGAGE_CODES = {LangageCode.fr, LangageCode.es, LangageCode.en};
+
+    public static void main(String[] args) throws Exception {
+
+        var workflows = Integer.getInteger("workflows", 1000);
+        var warmup = Integer.getInteger("warmup", 100);
+        var concurrency = Integer.getInteger("concurrency", 50);
+        var historySamples = Integer.getInteger("history_samples", 100);
+        var translationMode = TranslationMode.valueOf(System.getProperty("translation_mode", "ACTIVITY"));
+        var statusTracking = StatusTracking.valueOf(System.getProperty("status_tracking", "EAGER"));
+        var retryProfile = RetryProfile.valueOf(System.getProperty("retry_profile", "DEFAULT"));
+        var memo = Map.<String, Object>of(
+                HelloWorkflowMemo.TRANSLATION_MODE, translationMode,
+                HelloWorkflowMemo.STATUS_TRACKING, statusTracking,
+                HelloWorkflowMemo.RETRY_PROFILE, retryProfile);
+        var paths = Optional.ofNullable(System.getProperty("path"))
+                .map(path -> List.of(BenchmarkPath.valueOf(path)))
+                .orElse(List.of(BenchmarkPath.values()));
+        // One run per injected error rate, e.g. -Dfault_error_rates=0,0.1,0.3,0.5
+        var errorRates = Arrays.stream(System.getProperty("fault_error_rates", "0.5").split(","))
+                .map(String::trim)
+                .mapToDouble(Double::parseDouble)
+                .toArray();
+        var faultLatency = Duration.parse(System.getProperty("fault_latency", "PT0S"));
+        var faultSeed = Long.getLong("fault_seed");
+        var translationBackend = TranslationBackend.create(
+                TranslationBackendType.valueOf(System.getProperty("translation_backend", "STATIC")),
+                System.getProperty("translation_url", "http://localhost:8090"),
+                Duration.ofSeconds(5),
+                Duration.parse(System.getProperty("translation_cache_ttl", "PT0S")));
+        var asyncCompletion = Boolean.getBoolean("translation_async_completion");
+        var activitySlots = Integer.getInteger("activity_slots", 200);
+        var dataConverter = helloDataConverter(
+                Boolean.getBoolean("payload_binary"), Integer.getInteger("payload_compression_threshold", 0));
+
+        System.out.printf("workflows=%d concurrency=%d translationMode=%s statusTracking=%s retryProfile=%s asyncCompletion=%s activitySlots=%d%n",
+                workflows, concurrency, translationMode, statusTracking, retryProfile, asyncCompletion, activitySlots);
+
+        for (var errorRate : errorRates) {
+
+            var faultInjection = new FaultInjection(errorRate, faultLatency, "TranslateServiceUnavailable", false, faultSeed);
+            // Bounds in-flight translations per worker : with async completion, a slot is released when the activity returns
+            var workerOptions = WorkerOptions.newBuilder()
+                    .setMaxConcurrentActivityExecutionSize(activitySlots)
+                    .build();
+
+            var testEnv = TestWorkflowEnvironment.newInstance(TestEnvironmentOptions.newBuilder()
+                    .setWorkflowClientOptions(WorkflowClientOptions.newBuilder()
+                            .setDataConverter(dataConverter)
+                            .build())
+                    .setUseTimeskipping(Boolean.getBoolean("time_skipping"))
+                    .registerSearchAttribute(
+                            CorporateSearchAttributes.HELLO_WORKFLOW_STATUS.getName(),
+                            IndexedValueType.INDEXED_VALUE_TYPE_KEYWORD)
+                    .build());
+
+            var translationActivity = new HelloTranslationActivityImpl(faultInjection, translationBackend, asyncCompletion,
+                    new HelloWorkflowMetrics(new SimpleMeterRegistry()), testEnv.getWorkflowClient());
+            var workflowWorker = testEnv.newWorker("hello-workflow-task-queue", workerOptions);
+            workflowWorker.registerWorkflowImplementationTypes(HelloWorkflowImpl.class);
+            workflowWorker.registerActivitiesImplementations(translationActivity);
+            testEnv.newWorker("hello-translation-task-queue", workerOptions)
+                    .registerActivitiesImplementations(translationActivity);
+            testEnv.start();
+
+            var client = testEnv.getWorkflowClient();
+            var executor = Executors.newFixedThreadPool(concurrency);
+
+            try {
+                System.out.printf("%n== errorRate=%.3f faultLatency=%s%n", errorRate, faultLatency);
+
+                for (var path : paths) {
+                    run(client, executor, path, memo, "warmup", warmup, 0);
+                    print(run(client, executor, path, memo, "bench", workflows, historySamples));
+                }
+            } finally {
+                executor.shutdownNow();
+                testEnv.close();
+            }
+        }
+
+        // The SDK keeps a non daemon thread (generic-wf-client-async-throttler) alive once environments are closed
+        System.exit(0);
+    }
+
+    static BenchmarkResult run(WorkflowClient client, ExecutorService executor, BenchmarkPath path,
+                               Map<String, Object> memo, String prefix, int workflows, int historySamples) {
+
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var latencies = new long[workflows];
+        var workflowIds = new String[workflows];
+
+        var allocatedBefore = threads.getTotalThreadAllocatedBytes();
+        var start = System.nanoTime();
+
+        var futures = new ArrayList<CompletableFuture<Void>>(workflows);
+        for (int i = 0; i < workflows; i++) {
+            var index = i;
+            futures.add(CompletableFuture.runAsync(() -> {
+                // Same ids from one run to another (one test environment per error rate) : seeded fault draws depend on them
+                workflowIds[index] = "%s-%s-%d".formatted(prefix, path.name().toLowerCase(Locale.ROOT), index);
+                latencies[index] = execute(client, path, memo, workflowIds[index], LANGAGE_CODES[index % LANGAGE_CODES.length]);
+            }, executor));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        var elapsed = System.nanoTime() - start;
+        var allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+
+        // Fetched outside the measured window : it is an extra RPC per workflow
+        var samples = Math.min(historySamples, workflows);
+        var historyEvents = Arrays.stream(workflowIds, 0, samples)
+                .mapToLong(workflowId -> client.fetchHistory(workflowId).getHistory().getEventsCount())
+                .average()
+                .orElse(0);
+
+        return new BenchmarkResult(path, workflows, elapsed, latencies, historyEvents, allocated);
+    }
+
+    static long execute(WorkflowClient client, BenchmarkPath path, Map<String, Object> memo,
+                        String workflowId, LangageCode langageCode) {
+
+        var workflow = client.newWorkflowStub(HelloWorkflow.class,
+                WorkflowOptions.newBuilder()
+                        .setWorkflowId(workflowId)
+                        .setWorkflowIdConflictPolicy(WorkflowIdConflictPolicy.WORKFLOW_ID_CONFLICT_POLICY_FAIL)
+                        .setMemo(memo)
+                        .setTaskQueue("hello-workflow-task-queue").build());
+
+        var start = System.nanoTime();
+
+        switch (path) {
+            case DIRECT -> workflow.sayHello(HelloRequest.of("bench", langageCode));
+            case SIGNAL -> {
+                WorkflowClient.start(workflow::sayHello, HelloRequest.of("bench", null));
+                workflow.langageCode(langageCode);
+                WorkflowStub.fromTyped(workflow).getResult(HelloResponse.class);
+            }
+            case SIGNAL_WITH_START -> {
+                var signalWithStart = client.newSignalWithStartRequest();
+                signalWithStart.add(workflow::sayHello, HelloRequest.of("bench", null));
+                signalWithStart.add(workflow::langageCode, langageCode);
+                client.signalWithStart(signalWithStart);
+                WorkflowStub.fromTyped(workflow).getResult(HelloResponse.class);
+            }
+            case UPDATE_WITH_START -> WorkflowClient.executeUpdateWithStart(
+                    workflow::greet,
+                    langageCode,
+                    UpdateOptions.<HelloResponse>newBuilder().setWaitForStage(WorkflowUpdateStage.COMPLETED).build(),
+                    new WithStartWorkflowOperation<>(workflow::sayHello, HelloRequest.of("bench", null))
+            );
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    static void print(BenchmarkResult result) {
+
+        var latencies = result.latenciesNanos().clone();
+        Arrays.sort(latencies);
+        var seconds = result.elapsedNanos() / 1e9;
+
+        System.out.printf("""
+                        [%s]
+                          throughput : %.1f workflows/s
+                          latency    : p50 %.1f ms, p99 %.1f ms, p999 %.1f ms, max %.1f ms
+                          history    : %.1f events/workflow
+                          allocation : %.1f MB/s, %.1f KB/workflow
+                        """,
+                result.path(),
+                result.workflows() / seconds,
+                percentile(latencies, 0.50) / 1e6,
+                percentile(latencies, 0.99) / 1e6,
+                percentile(latencies, 0.999) / 1e6,
+                latencies[latencies.length - 1] / 1e6,
+                result.historyEventsPerWorkflow(),
+                result.allocatedBytes() / seconds / (1024 * 1024),
+                (double) result.allocatedBytes() / result.workflows() / 1024);
+    }
+
+    static long percentile(long[] sorted, double quantile) {
+        var index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
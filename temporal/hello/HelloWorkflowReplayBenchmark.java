@@ -0,0 +1,354 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 21+
+//SOURCES MainSpringBoot.java
+//DEPS io.temporal:temporal-testing:1.27.0
+
+
+package temporal.hello;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.activity.Activity;
+import io.temporal.api.enums.v1.IndexedValueType;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowStub;
+import io.temporal.common.WorkflowExecutionHistory;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.testing.WorkflowReplayer;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkerFactoryOptions;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+
+import static temporal.hello.MainSpringBoot.*;
+
+/**
+ * Replays {@link HelloWorkflow} histories with {@link WorkflowReplayer}, as a worker does when a workflow is evicted from
+ * its sticky cache, and reports replay time, CPU and allocations per history.
+ * <p>
+ * Histories are generated on the in-memory Temporal test server for each scenario ({@code DIRECT}, {@code SIGNAL} :
+ * long wait for the langageCode signal, {@code LOCAL_RETRIES:<n>} : translation local activity failing {@code n} times),
+ * or loaded from JSON files ({@code temporal workflow show -o json}). Activity retries are not replayed : they are scheduled
+ * by the server and leave no event in the history, only local activity retries do.
+ * <p>
+ * From the measured replay cost and the heap retained by a cached workflow, the expected cache miss CPU and the cache
+ * memory are estimated for each sticky cache size, assuming workflow tasks spread evenly across open workflows.
+ * <pre>
+ * jbang -Dscenarios=DIRECT,LOCAL_RETRIES:30 -Dsticky_cache_sizes=600,2000,10000 -Dopen_workflows=20000 temporal-say-hello-replay-benchmark@nzuguem
+ * jbang -Dscenarios= -Dhistories=history-1.json,history-2.json temporal-say-hello-replay-benchmark@nzuguem
+ * </pre>
+ */
+public class HelloWorkflowReplayBenchmark {
+
+    enum Scenario {
+        // langageCode given at start
+        DIRECT,
+        // langageCode signal sent after signal_wait
+        SIGNAL,
+        // translation local activity failing n times
+        LOCAL_RETRIES
+    }
+
+    record ReplayResult(String name, int events, int bytes, long[] replayNanos, long cpuNanos, long allocatedBytes) {
+
+        double cpuNanosPerReplay() {
+            return (double) this.cpuNanos / this.replayNanos.length;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        var iterations = Integer.getInteger("iterations", 200);
+        var warmup = Integer.getInteger("warmup", 50);
+        var scenarios = Arrays.stream(System.getProperty("scenarios", "DIRECT,SIGNAL,LOCAL_RETRIES:20").split(","))
+                .map(String::trim)
+                .filter(scenario -> !scenario.isEmpty())
+                .toList();
+        var histories = Arrays.stream(System.getProperty("histories", "").split(","))
+                .map(String::trim)
+                .filter(history -> !history.isEmpty())
+                .map(Path::of)
+                .toList();
+        var signalWait = Duration.parse(System.getProperty("signal_wait", "PT24H"));
+        var statusTracking = StatusTracking.valueOf(System.getProperty("status_tracking", "EAGER"));
+        var retryProfile = RetryProfile.valueOf(System.getProperty("retry_profile", "DEFAULT"));
+        var exportDir = Optional.ofNullable(System.getProperty("export_dir")).map(Path::of);
+        var cacheSizes = Arrays.stream(System.getProperty("sticky_cache_sizes", "600,2000,10000").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        var openWorkflows = Integer.getInteger("open_workflows", 10_000);
+        var workflowTasksPerSecond = Double.parseDouble(System.getProperty("workflow_tasks_per_second", "500"));
+        var memorySamples = Integer.getInteger("memory_samples", 500);
+
+        System.out.printf("iterations=%d warmup=%d statusTracking=%s retryProfile=%s%n",
+                iterations, warmup, statusTracking, retryProfile);
+
+        var named = new LinkedHashMap<String, WorkflowExecutionHistory>();
+        for (var scenario : scenarios) {
+            var history = generate(scenario, signalWait, statusTracking, retryProfile);
+            named.put(scenario, history);
+            if (exportDir.isPresent()) {
+                Files.createDirectories(exportDir.get());
+                Files.writeString(exportDir.get().resolve(scenario.replace(':', '-') + ".json"), history.toJson(true));
+            }
+        }
+        for (var path : histories) {
+            named.put(path.getFileName().toString(), WorkflowExecutionHistory.fromJson(Files.readString(path)));
+        }
+
+        // One worker for every replay : only the replay itself is measured
+        var replayEnv = newEnvironment(WorkerFactoryOptions.getDefaultInstance());
+        var replayWorker = replayEnv.newWorker("hello-workflow-task-queue");
+        replayWorker.registerWorkflowImplementationTypes(HelloWorkflowImpl.class);
+
+        var results = new ArrayList<ReplayResult>(named.size());
+        try {
+            for (var entry : named.entrySet()) {
+                replay(replayWorker, entry.getValue(), warmup);
+                var result = measure(replayWorker, entry.getKey(), entry.getValue(), iterations);
+                print(result);
+                results.add(result);
+            }
+        } finally {
+            replayEnv.close();
+        }
+
+        if (!results.isEmpty()) {
+            var bytesPerCachedWorkflow = bytesPerCachedWorkflow(memorySamples);
+            print(results, bytesPerCachedWorkflow, cacheSizes, openWorkflows, workflowTasksPerSecond);
+        }
+
+        // The SDK keeps a non daemon thread (generic-wf-client-async-throttler) alive once environments are closed
+        System.exit(0);
+    }
+
+    static WorkflowExecutionHistory generate(String spec, Duration signalWait,
+                                             StatusTracking statusTracking, RetryProfile retryProfile) throws Exception {
+
+        var parts = spec.split(":");
+        var scenario = Scenario.valueOf(parts[0]);
+        var failures = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+        var translationMode = scenario == Scenario.LOCAL_RETRIES ? TranslationMode.LOCAL_ACTIVITY : TranslationMode.ACTIVITY;
+
+        var testEnv = newEnvironment(WorkerFactoryOptions.getDefaultInstance());
+        var translationActivity = new FailingTranslationActivity(failures, testEnv.getWorkflowClient());
+        var workflowWorker = testEnv.newWorker("hello-workflow-task-queue");
+        workflowWorker.registerWorkflowImplementationTypes(HelloWorkflowImpl.class);
+        workflowWorker.registerActivitiesImplementations(translationActivity);
+        testEnv.newWorker("hello-translation-task-queue")
+                .registerActivitiesImplementations(translationActivity);
+        testEnv.start();
+
+        try {
+            var workflowId = "replay-%s-%s".formatted(spec.replace(':', '-').toLowerCase(Locale.ROOT), UUID.randomUUID());
+            var workflow = testEnv.getWorkflowClient().newWorkflowStub(HelloWorkflow.class,
+                    WorkflowOptions.newBuilder()
+                            .setWorkflowId(workflowId)
+                            .setMemo(Map.of(
+                                    HelloWorkflowMemo.TRANSLATION_MODE, translationMode,
+                                    HelloWorkflowMemo.STATUS_TRACKING, statusTracking,
+                                    HelloWorkflowMemo.RETRY_PROFILE, retryProfile))
+                            .setTaskQueue("hello-workflow-task-queue").build());
+
+            if (scenario == Scenario.SIGNAL) {
+                WorkflowClient.start(workflow::sayHello, HelloRequest.of("replay", null));
+                testEnv.sleep(signalWait);
+                workflow.langageCode(LangageCode.fr);
+            } else {
+                WorkflowClient.start(workflow::sayHello, HelloRequest.of("replay", LangageCode.fr));
+            }
+            WorkflowStub.fromTyped(workflow).getResult(HelloResponse.class);
+
+            return testEnv.getWorkflowClient().fetchHistory(workflowId);
+        } finally {
+            testEnv.close();
+        }
+    }
+
+    static ReplayResult measure(Worker worker, String name, WorkflowExecutionHistory history, int iterations) throws Exception {
+
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var os = (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        var replayNanos = new long[iterations];
+
+        var allocatedBefore = threads.getTotalThreadAllocatedBytes();
+        var cpuBefore = os.getProcessCpuTime();
+
+        for (int i = 0; i < iterations; i++) {
+            var start = System.nanoTime();
+            WorkflowReplayer.replayWorkflowExecution(history, worker);
+            replayNanos[i] = System.nanoTime() - start;
+        }
+
+        return new ReplayResult(name,
+                history.getHistory().getEventsCount(),
+                history.getHistory().getSerializedSize(),
+                replayNanos,
+                os.getProcessCpuTime() - cpuBefore,
+                threads.getTotalThreadAllocatedBytes() - allocatedBefore);
+    }
+
+    static void replay(Worker worker, WorkflowExecutionHistory history, int iterations) throws Exception {
+        for (int i = 0; i < iterations; i++) {
+            WorkflowReplayer.replayWorkflowExecution(history, worker);
+        }
+    }
+
+    /**
+     * Heap retained per cached workflow : workflows waiting for their langageCode signal are kept in the sticky cache.
+     * The in-memory test server runs in the same JVM, so this is an upper bound. Workflow thread stacks are not included.
+     */
+    static long bytesPerCachedWorkflow(int samples) throws Exception {
+
+        var testEnv = newEnvironment(WorkerFactoryOptions.newBuilder()
+                .setWorkflowCacheSize(samples * 2)
+                .setMaxWorkflowThreadCount(samples * 2)
+                .build());
+        testEnv.newWorker("hello-workflow-task-queue")
+                .registerWorkflowImplementationTypes(HelloWorkflowImpl.class);
+        testEnv.start();
+
+        try {
+            var client = testEnv.getWorkflowClient();
+            var before = usedHeap();
+
+            var workflows = new ArrayList<HelloWorkflow>(samples);
+            for (int i = 0; i < samples; i++) {
+                var workflow = client.newWorkflowStub(HelloWorkflow.class,
+                        WorkflowOptions.newBuilder()
+                                .setWorkflowId("replay-memory-%d-%s".formatted(i, UUID.randomUUID()))
+                                .setTaskQueue("hello-workflow-task-queue").build());
+                WorkflowClient.start(workflow::sayHello, HelloRequest.of("replay", null));
+                workflows.add(workflow);
+            }
+            // Answered by the cached workflows once their first workflow task ran
+            for (var workflow : workflows) {
+                while (workflow.status() != HelloWorkflowStatus.WAITING) {
+                    Thread.sleep(10);
+                }
+            }
+
+            return Math.max(0, usedHeap() - before) / samples;
+        } finally {
+            testEnv.close();
+        }
+    }
+
+    static long usedHeap() throws InterruptedException {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    static TestWorkflowEnvironment newEnvironment(WorkerFactoryOptions workerFactoryOptions) {
+        return TestWorkflowEnvironment.newInstance(TestEnvironmentOptions.newBuilder()
+                .setWorkflowClientOptions(WorkflowClientOptions.newBuilder()
+                        // Decodes JSON, binary and compressed payloads
+                        .setDataConverter(helloDataConverter(false, 0))
+                        .build())
+                .setWorkerFactoryOptions(workerFactoryOptions)
+                .registerSearchAttribute(
+                        CorporateSearchAttributes.HELLO_WORKFLOW_STATUS.getName(),
+                        IndexedValueType.INDEXED_VALUE_TYPE_KEYWORD)
+                .build());
+    }
+
+    static void print(ReplayResult result) {
+
+        var replayNanos = result.replayNanos().clone();
+        Arrays.sort(replayNanos);
+
+        System.out.printf("""
+
+                        [%s]
+                          history    : %d events, %.1f KB
+                          replay     : p50 %.2f ms, p99 %.2f ms, max %.2f ms
+                          cpu        : %.2f ms/replay
+                          allocation : %.1f KB/replay
+                        """,
+                result.name(),
+                result.events(),
+                result.bytes() / 1024.0,
+                percentile(replayNanos, 0.50) / 1e6,
+                percentile(replayNanos, 0.99) / 1e6,
+                replayNanos[replayNanos.length - 1] / 1e6,
+                result.cpuNanosPerReplay() / 1e6,
+                (double) result.allocatedBytes() / replayNanos.length / 1024);
+    }
+
+    static long percentile(long[] sorted, double quantile) {
+        var index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    static void print(List<ReplayResult> results, long bytesPerCachedWorkflow, int[] cacheSizes,
+                      int openWorkflows, double workflowTasksPerSecond) {
+
+        // Histories weigh the same in the mix : pass recorded histories in their production proportions
+        var cpuNanosPerMiss = results.stream().mapToDouble(ReplayResult::cpuNanosPerReplay).average().orElse(0);
+        var allocatedBytesPerMiss = results.stream()
+                .mapToDouble(result -> (double) result.allocatedBytes() / result.replayNanos().length)
+                .average()
+                .orElse(0);
+
+        System.out.printf("""
+
+                        [sticky cache] openWorkflows=%d workflowTasks=%.0f/s
+                          cost per miss   : %.2f ms cpu, %.1f KB allocated
+                          cached workflow : %.1f KB heap (upper bound, without thread stack)
+                        """,
+                openWorkflows, workflowTasksPerSecond,
+                cpuNanosPerMiss / 1e6, allocatedBytesPerMiss / 1024,
+                bytesPerCachedWorkflow / 1024.0);
+
+        for (var cacheSize : cacheSizes) {
+            var hitRatio = Math.min(1.0, (double) cacheSize / openWorkflows);
+            var missesPerSecond = workflowTasksPerSecond * (1 - hitRatio);
+            System.out.printf("  size %-8d : hit %5.1f %%, %8.1f misses/s, %6.2f cores replaying, %8.1f MB allocated/s, %8.1f MB heap%n",
+                    cacheSize,
+                    hitRatio * 100,
+                    missesPerSecond,
+                    missesPerSecond * cpuNanosPerMiss / 1e9,
+                    missesPerSecond * allocatedBytesPerMiss / (1024 * 1024),
+                    (double) Math.min(cacheSize, openWorkflows) * bytesPerCachedWorkflow / (1024 * 1024));
+        }
+    }
+
+    /**
+     * Fails the first {@code failures} attempts of each translation, then translates.
+     */
+    static class FailingTranslationActivity implements HelloTranslationActivity {
+
+        private final int failures;
+
+        private final HelloTranslationActivity delegate;
+
+        FailingTranslationActivity(int failures, WorkflowClient client) {
+            this.failures = failures;
+            this.delegate = new HelloTranslationActivityImpl(
+                    new FaultInjection(0, Duration.ZERO, "TranslateServiceUnavailable", false, null),
+                    new StaticTranslationBackend(),
+                    false,
+                    new HelloWorkflowMetrics(new SimpleMeterRegistry()),
+                    client);
+        }
+
+        public String translateHello(LangageCode languageCode) {
+            if (Activity.getExecutionContext().getInfo().getAttempt() <= this.failures) {
+                throw ApplicationFailure.newFailure("injected failure", "TranslateServiceUnavailable");
+            }
+            return this.delegate.translateHello(languageCode);
+        }
+    }
+}
@@ -6,36 +6,132 @@
 //DEPS io.quarkus:quarkus-hibernate-validator
 //DEPS io.quarkiverse.temporal:quarkus-temporal:0.0.14
 //DEPS io.quarkus:quarkus-opentelemetry
+//DEPS io.opentelemetry:opentelemetry-opentracing-shim
+//DEPS io.temporal:temporal-opentracing:1.26.0
 //DEPS io.quarkus:quarkus-micrometer-registry-prometheus
 
-import io.quarkiverse.temporal.TemporalActivity;
-import io.quarkiverse.temporal.TemporalWorkflow;
+import com.google.protobuf.ByteString;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.arc.Unremovable;
 import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.temporal.activity.Activity;
 import io.temporal.activity.ActivityCancellationType;
+import io.temporal.activity.ActivityExecutionContext;
+import io.temporal.activity.ActivityInfo;
 import io.temporal.activity.ActivityInterface;
 import io.temporal.activity.ActivityMethod;
 import io.temporal.activity.ActivityOptions;
+import io.temporal.activity.LocalActivityOptions;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.api.enums.v1.RetryState;
+import io.temporal.api.enums.v1.TaskQueueType;
+import io.temporal.api.enums.v1.WorkflowIdConflictPolicy;
+import io.temporal.api.taskqueue.v1.TaskQueue;
+import io.temporal.api.workflowservice.v1.DescribeTaskQueueRequest;
+import io.temporal.client.ActivityCompletionClient;
+import io.temporal.client.ActivityCompletionException;
+import io.temporal.client.UpdateOptions;
+import io.temporal.client.WithStartWorkflowOperation;
 import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowException;
 import io.temporal.client.WorkflowExecutionMetadata;
+import io.temporal.client.WorkflowFailedException;
+import io.temporal.client.WorkflowNotFoundException;
 import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowUpdateStage;
 import io.temporal.common.RetryOptions;
 import io.temporal.common.SearchAttributeKey;
 import io.temporal.common.SearchAttributeUpdate;
+import io.temporal.common.converter.*;
+import io.temporal.common.interceptors.*;
 import io.temporal.failure.ActivityFailure;
 import io.temporal.failure.ApplicationFailure;
+import io.temporal.payload.codec.PayloadCodec;
+import io.temporal.payload.codec.PayloadCodecException;
+import io.temporal.serviceclient.WorkflowServiceStubs;
+import io.temporal.serviceclient.WorkflowServiceStubsOptions;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkerFactory;
+import io.temporal.worker.WorkerOptions;
+import io.temporal.worker.tuning.ResourceBasedControllerOptions;
+import io.temporal.worker.tuning.ResourceBasedTuner;
 import io.temporal.workflow.*;
+import io.temporal.workflow.unsafe.WorkflowUnsafe;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.RestMulti;
 import org.jboss.resteasy.reactive.RestPath;
 import org.jboss.resteasy.reactive.RestQuery;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
 import org.slf4j.Logger;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 @Path("/hello")
 public class MainQuarkus {
@@ -43,190 +139,2359 @@ public class MainQuarkus {
     @Inject
     WorkflowClient client;
 
+    @Inject
+    HelloWorkflowStatusLookup statusLookup;
+
+    @Inject
+    HelloWorkflowStatusWatcher statusWatcher;
+
+    @Inject
+    HelloAdmissionGate admissionGate;
+
+    @Inject
+    HelloWorkflowClientPool clientPool;
+
+    @ConfigProperty(name = "hello.batch.max-concurrency", defaultValue = "32")
+    int batchMaxConcurrency;
+
+    @ConfigProperty(name = "hello.campaign.max-concurrency", defaultValue = "100")
+    int campaignMaxConcurrency;
+
+    @ConfigProperty(name = "hello.campaign.page-size", defaultValue = "500")
+    int campaignPageSize;
+
+    @ConfigProperty(name = "hello.campaign.children-per-run", defaultValue = "1000")
+    int campaignChildrenPerRun;
+
+    @ConfigProperty(name = "hello.translation.mode", defaultValue = "ACTIVITY")
+    TranslationMode translationMode;
+
+    @ConfigProperty(name = "hello.status.tracking", defaultValue = "EAGER")
+    StatusTracking statusTracking;
+
+    @ConfigProperty(name = "hello.retry.profile", defaultValue = "DEFAULT")
+    RetryProfile retryProfile;
+
+    @ConfigProperty(name = "hello.status-stream.timeout", defaultValue = "30m")
+    Duration statusStreamTimeout;
+
 
     @GET
+    @RunOnVirtualThread
     @Path("/{name}")
     public Response sayHello(@RestPath @NotBlank String name, @RestQuery LangageCode langageCode) {
+        return this.admitted(() -> {
 
-        var workflowId = "hello-%s-%s".formatted(
-                name.toLowerCase(Locale.ROOT),
-                UUID.randomUUID().toString());
-        var workflow = this.client.newWorkflowStub(HelloWorkflow.class,
-                WorkflowOptions.newBuilder()
-                        .setWorkflowId(workflowId)
-                        .setTaskQueue("hello-workflow-task-queue").build());
+            var workflowId = this.startHelloWorkflow(HelloRequest.of(name, langageCode));
+
+            return Response.accepted(Map.of("workflowId", workflowId)).build();
+        });
+    }
+
+    /**
+     * Streams one Server-Sent Event per item, as soon as its workflow is started (or failed to start).
+     */
+    @POST
+    @Path("/batch")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<HelloBatchResult> sayHelloBatch(@NotEmpty @Size(max = 1000) List<@NotNull HelloRequest> helloRequests) {
+
+        if (!this.admissionGate.isOpen()) {
+            throw new WebApplicationException(this.tooManyRequests());
+        }
+
+        // Starts are gRPC round trips : run them concurrently on virtual threads, bounded by a semaphore
+        var permits = new Semaphore(this.batchMaxConcurrency);
 
-        WorkflowClient.start(workflow::sayHello, HelloRequest.of(name, langageCode));
+        var results = Multi.createFrom().<HelloBatchResult>emitter(emitter -> Thread.ofVirtual().name("hello-batch").start(() -> {
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                helloRequests.forEach(helloRequest -> executor.execute(
+                        () -> emitter.emit(this.startHelloWorkflow(helloRequest, permits))));
+            }
+            emitter.complete();
+        }));
 
-        return Response.accepted(Map.of("workflowId", workflowId)).build();
+        return RestMulti.fromMultiData(results)
+                .status(Response.Status.ACCEPTED.getStatusCode())
+                .build();
     }
 
     @GET
+    @RunOnVirtualThread
     @Path("/workflows/{workflowId}/langageCode/{langageCode}")
     public Response giveLangageCode(@RestPath @NotBlank String workflowId, @RestPath @NotNull LangageCode langageCode) {
 
-        this.client.newWorkflowStub(HelloWorkflow.class, workflowId)
+        this.clientPool.next().newWorkflowStub(HelloWorkflow.class, workflowId)
                 .langageCode(langageCode);
+        this.statusLookup.invalidate(workflowId);
 
         return Response.accepted(Map.of("workflowId", workflowId, "langageCode", langageCode)).build();
     }
 
     @GET
+    @RunOnVirtualThread
+    @Path("/{name}/langageCode/{langageCode}")
+    public Response sayHelloWithLangageCode(@RestPath @NotBlank String name, @RestPath @NotNull LangageCode langageCode) {
+        return this.admitted(() -> {
+
+            var workflowId = this.newWorkflowId(name);
+            var client = this.clientPool.next();
+            var workflow = client.newWorkflowStub(HelloWorkflow.class,
+                    this.helloWorkflowOptions(workflowId).build());
+
+            // Start and langageCode signal in a single round trip
+            var signalWithStart = client.newSignalWithStartRequest();
+            signalWithStart.add(workflow::sayHello, HelloRequest.of(name, null));
+            signalWithStart.add(workflow::langageCode, langageCode);
+            client.signalWithStart(signalWithStart);
+
+            return Response.accepted(Map.of("workflowId", workflowId, "langageCode", langageCode)).build();
+        });
+    }
+
+    @GET
+    @RunOnVirtualThread
+    @Path("/{name}/greeting/{langageCode}")
+    public Response greet(@RestPath @NotBlank String name, @RestPath @NotNull LangageCode langageCode) {
+        return this.admitted(() -> {
+
+            var workflowId = this.newWorkflowId(name);
+            var workflow = this.clientPool.next().newWorkflowStub(HelloWorkflow.class,
+                    this.helloWorkflowOptions(workflowId)
+                            .setWorkflowIdConflictPolicy(WorkflowIdConflictPolicy.WORKFLOW_ID_CONFLICT_POLICY_FAIL)
+                            .build());
+
+            // Start, langageCode and greeting in a single round trip
+            var startOperation = new WithStartWorkflowOperation<>(workflow::sayHello, HelloRequest.of(name, null));
+            var helloResponse = WorkflowClient.executeUpdateWithStart(
+                    workflow::greet,
+                    langageCode,
+                    UpdateOptions.<HelloResponse>newBuilder().setWaitForStage(WorkflowUpdateStage.COMPLETED).build(),
+                    startOperation
+            );
+
+            return Response.ok(Map.of("workflowId", workflowId, "message", helloResponse.message())).build();
+        });
+    }
+
+    @GET
+    @RunOnVirtualThread
+    @Path("/workflows/{workflowId}/greeting/{langageCode}")
+    public Response greetWorkflow(@RestPath @NotBlank String workflowId, @RestPath @NotNull LangageCode langageCode) {
+
+        var helloResponse = this.client.newWorkflowStub(HelloWorkflow.class, workflowId)
+                .greet(langageCode);
+        this.statusLookup.invalidate(workflowId);
+
+        return Response.ok(Map.of("workflowId", workflowId, "message", helloResponse.message())).build();
+    }
+
+    @GET
+    @RunOnVirtualThread
     @Path("/workflows/{workflowId}/status")
     public Response status(@RestPath @NotBlank String workflowId) {
 
-        var status = this.client.listExecutions("WorkflowId='%s'".formatted(workflowId))
-                .map(WorkflowExecutionMetadata::getTypedSearchAttributes)
-                .filter(sa -> sa.containsKey(CorporateSearchAttributes.HELLO_WORKFLOW_STATUS))
-                .map(sa -> sa.get(CorporateSearchAttributes.HELLO_WORKFLOW_STATUS))
-                .map(HelloWorkflowStatus::valueOf)
-                .findFirst()
-                .orElse(HelloWorkflowStatus.UNKNOWN);
+        var status = this.statusLookup.status(workflowId);
 
         return Response.ok(Map.of("workflowId", workflowId, "status", status)).build();
     }
 
-    @TemporalWorkflow(workers = "hello-workflow-worker")
-    public static class HelloWorkflowImpl implements HelloWorkflow {
+    @GET
+    @Path("/workflows/{workflowId}/result")
+    public Uni<Response> result(
+            @RestPath @NotBlank String workflowId,
+            @RestQuery @DefaultValue("30") @Min(1) @Max(60) int timeout) {
 
-        private LangageCode langageCode;
+        // Long poll : answers as soon as the workflow completes, or with 202 once the timeout expires
+        var result = this.client.newUntypedWorkflowStub(workflowId)
+                .getResultAsync(timeout, TimeUnit.SECONDS, HelloResponse.class);
+
+        return Uni.createFrom().completionStage(result)
+                .map(helloResponse -> Response.ok(Map.of(
+                        "workflowId", workflowId,
+                        "status", HelloWorkflowStatus.COMPLETED,
+                        "message", helloResponse.message())).build())
+                .onFailure(TimeoutException.class).recoverWithItem(() -> Response.accepted(Map.of(
+                        "workflowId", workflowId)).build())
+                .onFailure(WorkflowFailedException.class).recoverWithItem(e -> Response.ok(Map.of(
+                        "workflowId", workflowId,
+                        "status", HelloWorkflowStatus.ERROR,
+                        "error", e.getMessage())).build());
+    }
+
+    @GET
+    @Path("/workflows/{workflowId}/status/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<HelloWorkflowStatus> statusStream(@RestPath @NotBlank String workflowId) {
+        return Multi.createFrom().<HelloWorkflowStatus>emitter(emitter -> {
+            var cancel = this.statusWatcher.watch(workflowId, emitter::emit, emitter::complete);
+            emitter.onTermination(cancel);
+        }).select().first(this.statusStreamTimeout);
+    }
+
+    @POST
+    @RunOnVirtualThread
+    @Path("/campaigns")
+    public Response startCampaign(@NotNull @Valid HelloCampaignRequest campaignRequest) {
+
+        if ((Objects.isNull(campaignRequest.names()) || campaignRequest.names().isEmpty())
+                == (Objects.isNull(campaignRequest.source()) || campaignRequest.source().isBlank())) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", "names or source expected")).build();
+        }
+
+        return this.admitted(() -> {
+
+            var workflowId = "hello-campaign-%s".formatted(UUID.randomUUID());
+            var client = this.clientPool.next();
+            var workflow = client.newWorkflowStub(HelloCampaignWorkflow.class,
+                    this.helloWorkflowOptions(workflowId).build());
+
+            var source = Objects.isNull(campaignRequest.source()) || campaignRequest.source().isBlank()
+                    ? this.holdCampaignNames(client, workflowId, campaignRequest.names())
+                    : campaignRequest.source();
+
+            WorkflowClient.start(workflow::run, new HelloCampaign(
+                    source, campaignRequest.languageCode(),
+                    this.campaignMaxConcurrency, this.campaignPageSize, this.campaignChildrenPerRun, null, null));
+
+            return Response.accepted(Map.of("workflowId", workflowId)).build();
+        });
+    }
+
+    /**
+     * Starts the workflow holding inline campaign names.
+     * @return the source reading them
+     */
+    private String holdCampaignNames(WorkflowClient client, String campaignId, List<String> names) {
+
+        var workflowId = "%s-names".formatted(campaignId);
+        var workflow = client.newWorkflowStub(HelloCampaignNamesWorkflow.class, WorkflowOptions.newBuilder()
+                .setWorkflowId(workflowId)
+                .setTaskQueue("hello-workflow-task-queue")
+                .build());
+        WorkflowClient.start(workflow::hold, names);
+
+        return "inline:" + workflowId;
+    }
 
-        ActivityOptions options = ActivityOptions.newBuilder()
-                .setStartToCloseTimeout(Duration.ofSeconds(30))
-                .setRetryOptions(RetryOptions.newBuilder()
-                        .setInitialInterval(Duration.ofSeconds(1))
-                        .setMaximumInterval(Duration.ofSeconds(100))
-                        .setBackoffCoefficient(2)
-                        .setMaximumAttempts(500)
-                        .build())
+    @GET
+    @RunOnVirtualThread
+    @Path("/campaigns/{workflowId}/progress")
+    public Response campaignProgress(@RestPath @NotBlank String workflowId) {
+
+        var progress = this.client.newWorkflowStub(HelloCampaignWorkflow.class, workflowId).progress();
+
+        return Response.ok(progress).build();
+    }
+
+    private HelloBatchResult startHelloWorkflow(HelloRequest helloRequest, Semaphore permits) {
+
+        if (Objects.isNull(helloRequest.name()) || helloRequest.name().isBlank()) {
+            return HelloBatchResult.failed(helloRequest, "name must not be blank");
+        }
+
+        permits.acquireUninterruptibly();
+        try {
+            if (!this.admissionGate.tryAcquire()) {
+                return HelloBatchResult.failed(helloRequest, "too many workflow starts, retry later");
+            }
+            try {
+                return HelloBatchResult.started(helloRequest, this.startHelloWorkflow(helloRequest));
+            } finally {
+                this.admissionGate.release();
+            }
+        } catch (Exception e) {
+            Log.warnf(e, "Unable to start HelloWorkflow for %s", helloRequest.name());
+            return HelloBatchResult.failed(helloRequest, e.getMessage());
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Runs a workflow start through the admission gate : 429 with Retry-After when it is rejected.
+     */
+    private Response admitted(Supplier<Response> start) {
+
+        if (!this.admissionGate.tryAcquire()) {
+            return this.tooManyRequests();
+        }
+
+        try {
+            return start.get();
+        } finally {
+            this.admissionGate.release();
+        }
+    }
+
+    private Response tooManyRequests() {
+        return Response.status(Response.Status.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, this.admissionGate.retryAfter().toSeconds())
+                .entity(Map.of("error", "too many workflow starts, retry later"))
                 .build();
+    }
 
-        HelloTranslationActivity helloTranslationActivity = Workflow.newActivityStub(
-                HelloTranslationActivity.class,
-                ActivityOptions.newBuilder(options)
-                        .setTaskQueue("hello-translation-task-queue")
-                        .setCancellationType(ActivityCancellationType.WAIT_CANCELLATION_COMPLETED)
-                        .build()
-        );
+    private String startHelloWorkflow(HelloRequest helloRequest) {
 
-        static final Logger LOGGER =  Workflow.getLogger("HelloWorkflow");
+        var workflowId = this.newWorkflowId(helloRequest.name());
+        var workflow = this.clientPool.next().newWorkflowStub(HelloWorkflow.class,
+                this.helloWorkflowOptions(workflowId).build());
 
-        public HelloWorkflowImpl() {
-            CorporateSearchAttributes.setStatus(HelloWorkflowStatus.INITIAL);
+        WorkflowClient.start(workflow::sayHello, helloRequest);
+
+        return workflowId;
+    }
+
+    private String newWorkflowId(String name) {
+        return "hello-%s-%s".formatted(
+                name.toLowerCase(Locale.ROOT),
+                UUID.randomUUID().toString());
+    }
+
+    private WorkflowOptions.Builder helloWorkflowOptions(String workflowId) {
+        return WorkflowOptions.newBuilder()
+                .setWorkflowId(workflowId)
+                .setMemo(Map.of(
+                        HelloWorkflowMemo.TRANSLATION_MODE, this.translationMode,
+                        HelloWorkflowMemo.STATUS_TRACKING, this.statusTracking,
+                        HelloWorkflowMemo.RETRY_PROFILE, this.retryProfile))
+                .setTaskQueue("hello-workflow-task-queue");
+    }
+
+    /**
+     * Resolves a workflow status from the local cache, then the workflow {@code status} query,
+     * and only falls back to the visibility store when the query cannot be answered.
+     */
+    @ApplicationScoped
+    public static class HelloWorkflowStatusLookup {
+
+        @Inject
+        WorkflowClient client;
+
+        private final HelloWorkflowStatusCache cache;
+
+        public HelloWorkflowStatusLookup(
+                @ConfigProperty(name = "hello.status-cache.max-size", defaultValue = "10000") int maxSize,
+                @ConfigProperty(name = "hello.status-cache.open-ttl", defaultValue = "1s") Duration openTtl,
+                @ConfigProperty(name = "hello.status-cache.closed-ttl", defaultValue = "10m") Duration closedTtl) {
+            this.cache = new HelloWorkflowStatusCache(maxSize, openTtl, closedTtl);
         }
 
-        public HelloResponse sayHello(HelloRequest helloRequest) {
+        public HelloWorkflowStatus status(String workflowId) {
 
-            LOGGER.info("Say Hello To {}", helloRequest.name());
+            var cached = this.cache.get(workflowId);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
 
-            this.langageCode = helloRequest.languageCode();
+            var status = this.query(workflowId)
+                    .orElseGet(() -> this.visibility(workflowId));
 
-            if (Objects.isNull(this.langageCode)) {
-                LOGGER.info("Waiting Signal langageCode ...");
-                CorporateSearchAttributes.setStatus(HelloWorkflowStatus.WAITING);
-                Workflow.await(() -> !Objects.isNull(this.langageCode));
+            if (status != HelloWorkflowStatus.UNKNOWN) {
+                this.cache.put(workflowId, status);
             }
 
-            String translateResult;
+            return status;
+        }
+
+        public void invalidate(String workflowId) {
+            this.cache.invalidate(workflowId);
+        }
+
+        private Optional<HelloWorkflowStatus> query(String workflowId) {
             try {
-                translateResult = this.helloTranslationActivity.translateHello(this.langageCode);
+                return Optional.ofNullable(this.client.newWorkflowStub(HelloWorkflow.class, workflowId).status());
             }
-            // For Non Retryable Application Failure
-            catch (ActivityFailure activityFailure) {
-                LOGGER.error(activityFailure.getMessage(), activityFailure);
-                CorporateSearchAttributes.setStatus(HelloWorkflowStatus.ERROR);
-                throw activityFailure;
+            // Not found, no worker to answer or started before the query handler existed
+            catch (WorkflowException workflowException) {
+                return Optional.empty();
             }
+        }
+
+        private HelloWorkflowStatus visibility(String workflowId) {
+            return this.client.listExecutions("WorkflowId='%s'".formatted(workflowId))
+                    .map(WorkflowExecutionMetadata::getTypedSearchAttributes)
+                    .filter(sa -> sa.containsKey(CorporateSearchAttributes.HELLO_WORKFLOW_STATUS))
+                    .map(sa -> sa.get(CorporateSearchAttributes.HELLO_WORKFLOW_STATUS))
+                    .map(HelloWorkflowStatus::valueOf)
+                    .findFirst()
+                    .orElse(HelloWorkflowStatus.UNKNOWN);
+        }
+    }
 
-            var helloResponse =  HelloResponse.of("%s %s !".formatted(translateResult, helloRequest.name()));
+    /**
+     * Pushes status transitions to subscribers.
+     * Watched workflows are polled on a single schedule and each lookup is shared by all subscribers of a workflow.
+     */
+    @Singleton
+    public static class HelloWorkflowStatusWatcher {
 
-            CorporateSearchAttributes.setStatus(HelloWorkflowStatus.COMPLETED);
+        private record Subscriber(Consumer<HelloWorkflowStatus> onStatus, Runnable onClose) {}
 
-            return helloResponse;
+        private static final class Watch {
+            final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+            final AtomicBoolean polling = new AtomicBoolean();
+            volatile HelloWorkflowStatus status;
+            int unknownPolls;
         }
 
-        public void langageCode(LangageCode langageCode) {
-            LOGGER.info("Receive Signal langageCode : {}", langageCode);
-            this.langageCode = langageCode;
+        private final HelloWorkflowStatusLookup statusLookup;
+        private final int maxUnknownPolls;
+        private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+        private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("hello-status-watcher").daemon().factory());
+        private final ExecutorService pollers = Executors.newVirtualThreadPerTaskExecutor();
+
+        public HelloWorkflowStatusWatcher(
+                HelloWorkflowStatusLookup statusLookup,
+                @ConfigProperty(name = "hello.status-stream.poll-interval", defaultValue = "1s") Duration pollInterval,
+                @ConfigProperty(name = "hello.status-stream.max-unknown-polls", defaultValue = "5") int maxUnknownPolls) {
+            this.statusLookup = statusLookup;
+            this.maxUnknownPolls = maxUnknownPolls;
+            this.scheduler.scheduleWithFixedDelay(
+                    this::pollAll, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
         }
 
-    }
+        /**
+         * Subscribes to the status transitions of a workflow. {@code onClose} is called once the workflow is closed,
+         * or once it is still {@code UNKNOWN} after {@code hello.status-stream.max-unknown-polls} lookups in a row.
+         * @return the action cancelling this subscription
+         */
+        public Runnable watch(String workflowId, Consumer<HelloWorkflowStatus> onStatus, Runnable onClose) {
 
+            var subscriber = new Subscriber(onStatus, onClose);
+            var watch = this.watches.compute(workflowId, (id, existing) -> {
+                var w = Objects.isNull(existing) ? new Watch() : existing;
+                w.subscribers.add(subscriber);
+                return w;
+            });
 
-    @WorkflowInterface
-    public interface HelloWorkflow {
+            var current = watch.status;
+            if (!Objects.isNull(current)) {
+                onStatus.accept(current);
+            }
 
-        @WorkflowMethod
-        HelloResponse sayHello(HelloRequest helloRequest);
+            return () -> this.watches.computeIfPresent(workflowId, (id, w) -> {
+                w.subscribers.remove(subscriber);
+                return w.subscribers.isEmpty() ? null : w;
+            });
+        }
 
-        @SignalMethod
-        void langageCode(LangageCode langageCode);
+        @PreDestroy
+        void close() {
+            this.scheduler.shutdownNow();
+            this.pollers.shutdownNow();
+        }
+
+        private void pollAll() {
+            // One lookup per watched workflow, however many clients watch it
+            this.watches.forEach((workflowId, watch) -> {
+                if (watch.polling.compareAndSet(false, true)) {
+                    this.pollers.execute(() -> {
+                        try {
+                            this.poll(workflowId, watch);
+                        } catch (Exception e) {
+                            Log.warnf(e, "Unable to poll status of %s", workflowId);
+                        } finally {
+                            watch.polling.set(false);
+                        }
+                    });
+                }
+            });
+        }
 
+        private void poll(String workflowId, Watch watch) {
+
+            var status = this.statusLookup.status(workflowId);
+            watch.unknownPolls = status == HelloWorkflowStatus.UNKNOWN ? watch.unknownPolls + 1 : 0;
+
+            if (status != watch.status) {
+                watch.status = status;
+                watch.subscribers.forEach(subscriber -> subscriber.onStatus().accept(status));
+            }
+
+            // A workflow just started may not be visible yet : an unknown one is only given up after a few lookups
+            if (status.isClosed() || watch.unknownPolls >= this.maxUnknownPolls) {
+                this.watches.remove(workflowId, watch);
+                watch.subscribers.forEach(subscriber -> subscriber.onClose().run());
+            }
+        }
     }
 
-    @TemporalActivity(workers = "hello-translation-worker")
-    public static class HelloTranslationActivityImpl implements HelloTranslationActivity {
+    /**
+     * Roles of this node ({@code hello.roles}) : any subset of REST API, workflow worker and activity worker.
+     * Only the workers of these roles are registered, before the worker factory starts ({@code quarkus.temporal.start-workers}
+     * is off) : the task queues of the other roles are never polled from this node.
+     */
+    @Singleton
+    public static class HelloRoles {
 
-        public String translateHello(LangageCode languageCode) {
+        private final Set<HelloRole> roles;
 
-            Log.infof("Translate Hello To %s", languageCode);
+        private final WorkerFactory workerFactory;
 
-            injectErrorRandomly();
+        private final HelloTranslationActivityImpl translationActivity;
 
-            return switch (languageCode) {
-                case fr -> "Bonjour";
-                case es -> "Hola";
-                case en -> "Hello";
-                case wtf -> throw ApplicationFailure.newNonRetryableFailure("invalid langage code: wtf","InvalidLangageCode");
-            };
+        private final HelloCampaignSourceActivityImpl campaignSourceActivity;
+
+        private final Config config;
+
+        public HelloRoles(
+                @ConfigProperty(name = "hello.roles", defaultValue = "api,workflow-worker,activity-worker") List<String> roles,
+                WorkerFactory workerFactory,
+                HelloTranslationActivityImpl translationActivity,
+                HelloCampaignSourceActivityImpl campaignSourceActivity,
+                Config config) {
+            this.roles = HelloRole.of(roles);
+            this.workerFactory = workerFactory;
+            this.translationActivity = translationActivity;
+            this.campaignSourceActivity = campaignSourceActivity;
+            this.config = config;
         }
 
-        void injectErrorRandomly() {
-            if (new Random().nextBoolean()) {
-                var re = new RuntimeException("Translate Service temporarily unavailable");
-                throw ApplicationFailure.newFailureWithCause(re.getMessage(), "TranslateServiceUnavailable", re);
+        public boolean has(HelloRole role) {
+            return this.roles.contains(role);
+        }
+
+        void onStart(@Observes @Priority(Integer.MAX_VALUE) StartupEvent event) {
+
+            if (this.has(HelloRole.WORKFLOW_WORKER)) {
+                var worker = this.newWorker(HelloRole.WORKFLOW_WORKER);
+                worker.registerWorkflowImplementationTypes(
+                        HelloWorkflowImpl.class, HelloCampaignWorkflowImpl.class, HelloCampaignNamesWorkflowImpl.class);
+                // Local activities run on the worker of the workflow
+                worker.registerActivitiesImplementations(this.translationActivity);
+            }
+            if (this.has(HelloRole.ACTIVITY_WORKER)) {
+                this.newWorker(HelloRole.ACTIVITY_WORKER)
+                        .registerActivitiesImplementations(this.translationActivity, this.campaignSourceActivity);
+            }
+            this.workerFactory.start();
+
+            Log.infof("Hello roles : %s", this.roles);
+        }
+
+        private Worker newWorker(HelloRole role) {
+
+            var optionsBuilder = WorkerOptions.newBuilder().setIdentity(role.worker);
+            var worker = new WorkerTuning(this.config, "hello.worker.%s.".formatted(role.worker));
+
+            worker.ifPresent("virtual-threads", Boolean.class, optionsBuilder::setUsingVirtualThreads);
+            worker.ifPresent("workflow-task-pollers", Integer.class, optionsBuilder::setMaxConcurrentWorkflowTaskPollers);
+            worker.ifPresent("activity-task-pollers", Integer.class, optionsBuilder::setMaxConcurrentActivityTaskPollers);
+
+            // Slot counts and a resource based tuner are mutually exclusive
+            if (worker.get("tuner", WorkerTuning.Tuner.class, WorkerTuning.Tuner.FIXED) == WorkerTuning.Tuner.RESOURCE_BASED) {
+                optionsBuilder.setWorkerTuner(ResourceBasedTuner.newBuilder()
+                        .setControllerOptions(ResourceBasedControllerOptions.newBuilder(
+                                        worker.get("tuner.target-memory", Double.class, 0.8),
+                                        worker.get("tuner.target-cpu", Double.class, 0.9))
+                                .build())
+                        .build());
+            } else {
+                worker.ifPresent("max-concurrent-workflow-tasks", Integer.class, optionsBuilder::setMaxConcurrentWorkflowTaskExecutionSize);
+                worker.ifPresent("max-concurrent-activities", Integer.class, optionsBuilder::setMaxConcurrentActivityExecutionSize);
+                worker.ifPresent("max-concurrent-local-activities", Integer.class, optionsBuilder::setMaxConcurrentLocalActivityExecutionSize);
             }
+
+            return this.workerFactory.newWorker(role.taskQueue, optionsBuilder.build());
         }
     }
 
+    /**
+     * Reads the tuning of one worker from the {@code hello.worker.<identity>.} properties.
+     * Unset properties keep the Temporal SDK defaults.
+     */
+    record WorkerTuning(Config config, String prefix) {
 
-    @ActivityInterface
-    public interface HelloTranslationActivity {
+        enum Tuner {
+            FIXED, RESOURCE_BASED
+        }
 
-        @ActivityMethod
-        String translateHello(LangageCode languageCode);
+        <T> void ifPresent(String key, Class<T> type, Consumer<T> setter) {
+            this.config.getOptionalValue(this.prefix + key, type).ifPresent(setter);
+        }
 
+        <T> T get(String key, Class<T> type, T defaultValue) {
+            return this.config.getOptionalValue(this.prefix + key, type).orElse(defaultValue);
+        }
     }
 
-    public record HelloRequest(String name, LangageCode languageCode) {
-        public static HelloRequest of(String name, LangageCode languageCode) {
-            return new HelloRequest(name, languageCode);
+    @Singleton
+    public static class HelloApiRoleFilter {
+
+        @Inject
+        HelloRoles roles;
+
+        @ServerRequestFilter(preMatching = true)
+        public Optional<Response> filter(ContainerRequestContext request) {
+            if (!this.roles.has(HelloRole.API) && request.getUriInfo().getPath().startsWith("/hello")) {
+                return Optional.of(Response.status(Response.Status.NOT_FOUND).build());
+            }
+            return Optional.empty();
         }
     }
 
-    public record HelloResponse(String message) {
-        public static HelloResponse of(String message) {
-            return new HelloResponse(message);
+    /**
+     * Spreads workflow starts and signals round-robin across {@code hello.client.channels} gRPC channels : a single
+     * HTTP/2 connection caps the number of concurrent streams. Channels copy the options of the primary client channel
+     * (target, TLS, API key, gRPC interceptors), with keepalive, and report their in-flight calls.
+     * With no pooled channel, the primary client is used.
+     */
+    @Singleton
+    public static class HelloWorkflowClientPool {
+
+        private final WorkflowClient[] clients;
+        private final List<WorkflowServiceStubs> pooledStubs = new ArrayList<>();
+        private final AtomicInteger next = new AtomicInteger();
+
+        public HelloWorkflowClientPool(
+                WorkflowClient client,
+                MeterRegistry registry,
+                @ConfigProperty(name = "hello.client.channels", defaultValue = "0") int channels,
+                @ConfigProperty(name = "hello.client.keepalive-time", defaultValue = "30s") Duration keepAliveTime,
+                @ConfigProperty(name = "hello.client.keepalive-timeout", defaultValue = "15s") Duration keepAliveTimeout) {
+
+            var primaryOptions = client.getWorkflowServiceStubs().getOptions();
+            if (channels > 0 && !Objects.isNull(primaryOptions.getChannel())) {
+                Log.warn("Client channel provided by the runtime : starts and signals stay on the primary client");
+                channels = 0;
+            }
+
+            if (channels == 0) {
+                this.clients = new WorkflowClient[]{client};
+                return;
+            }
+
+            this.clients = new WorkflowClient[channels];
+            for (int i = 0; i < channels; i++) {
+
+                var inFlightCalls = new InFlightCallsInterceptor();
+                var interceptors = new ArrayList<ClientInterceptor>(
+                        Objects.requireNonNullElse(primaryOptions.getGrpcClientInterceptors(), List.of()));
+                interceptors.add(inFlightCalls);
+
+                var stubs = WorkflowServiceStubs.newServiceStubs(WorkflowServiceStubsOptions.newBuilder(primaryOptions)
+                        .setGrpcClientInterceptors(interceptors)
+                        .setEnableKeepAlive(true)
+                        .setKeepAliveTime(keepAliveTime)
+                        .setKeepAliveTimeout(keepAliveTimeout)
+                        .setKeepAlivePermitWithoutStream(true)
+                        .build());
+                this.pooledStubs.add(stubs);
+                // Same namespace, data converter and interceptors as the primary client
+                this.clients[i] = WorkflowClient.newInstance(stubs, client.getOptions());
+
+                Gauge.builder("hello.client.channel.inflight", inFlightCalls, InFlightCallsInterceptor::inFlight)
+                        .description("gRPC calls in flight on a pooled client channel")
+                        .tag("channel", String.valueOf(i))
+                        .register(registry);
+            }
+        }
+
+        public WorkflowClient next() {
+            return this.clients[Math.floorMod(this.next.getAndIncrement(), this.clients.length)];
+        }
+
+        public int size() {
+            return this.clients.length;
+        }
+
+        @PreDestroy
+        void close() {
+            this.pooledStubs.forEach(WorkflowServiceStubs::shutdown);
         }
     }
 
-    public enum LangageCode {
-        fr, es, en, wtf
+    static final class InFlightCallsInterceptor implements ClientInterceptor {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        int inFlight() {
+            return this.inFlight.get();
+        }
+
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+                MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+
+            return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+
+                @Override
+                public void start(Listener<RespT> responseListener, Metadata headers) {
+                    inFlight.incrementAndGet();
+                    try {
+                        super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                            @Override
+                            public void onClose(Status status, Metadata trailers) {
+                                inFlight.decrementAndGet();
+                                super.onClose(status, trailers);
+                            }
+                        }, headers);
+                    } catch (RuntimeException e) {
+                        inFlight.decrementAndGet();
+                        throw e;
+                    }
+                }
+            };
+        }
     }
 
-    public enum HelloWorkflowStatus {
-        INITIAL, WAITING, UNKNOWN, COMPLETED, ERROR
+    /**
+     * Admission control of workflow starts. Starts are rejected while a task queue is backed up, or has a backlog
+     * and no poller to drain it, and wait up to {@code max-wait} while too many starts are in flight.
+     * Task queues are sampled with {@code DescribeTaskQueue} on a fixed delay : a start only reads the last sample.
+     */
+    @Singleton
+    public static class HelloAdmissionGate {
+
+        public enum Reason {
+            WORKFLOW_BACKLOG, TRANSLATION_BACKLOG, NO_POLLERS, IN_FLIGHT
+        }
+
+        private enum MonitoredQueue {
+            WORKFLOW("hello-workflow-task-queue", TaskQueueType.TASK_QUEUE_TYPE_WORKFLOW, Reason.WORKFLOW_BACKLOG),
+            TRANSLATION("hello-translation-task-queue", TaskQueueType.TASK_QUEUE_TYPE_ACTIVITY, Reason.TRANSLATION_BACKLOG);
+
+            final String taskQueue;
+            final TaskQueueType type;
+            final Reason backlogReason;
+
+            MonitoredQueue(String taskQueue, TaskQueueType type, Reason backlogReason) {
+                this.taskQueue = taskQueue;
+                this.type = type;
+                this.backlogReason = backlogReason;
+            }
+        }
+
+        private final WorkflowClient client;
+        private final boolean enabled;
+        private final long[] maxBacklogs;
+        private final int maxInFlight;
+        private final Duration maxWait;
+        private final Duration retryAfter;
+        private final Semaphore inFlight;
+        private final MeterRegistry registry;
+        private final Duration sampleInterval;
+        private final boolean sampled;
+        private final long[] backlogs = new long[MonitoredQueue.values().length];
+        private final int[] pollers = new int[MonitoredQueue.values().length];
+        private final Counter[] rejected = new Counter[Reason.values().length];
+        private volatile Reason closedBy;
+        private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("hello-admission-gate").daemon().factory());
+
+        public HelloAdmissionGate(
+                WorkflowClient client,
+                HelloRoles roles,
+                MeterRegistry registry,
+                @ConfigProperty(name = "hello.admission.enabled", defaultValue = "true") boolean enabled,
+                @ConfigProperty(name = "hello.admission.sample-interval", defaultValue = "5s") Duration sampleInterval,
+                @ConfigProperty(name = "hello.admission.max-workflow-backlog", defaultValue = "10000") long maxWorkflowBacklog,
+                @ConfigProperty(name = "hello.admission.max-translation-backlog", defaultValue = "10000") long maxTranslationBacklog,
+                @ConfigProperty(name = "hello.admission.max-in-flight", defaultValue = "1000") int maxInFlight,
+                @ConfigProperty(name = "hello.admission.max-wait", defaultValue = "0s") Duration maxWait,
+                @ConfigProperty(name = "hello.admission.retry-after", defaultValue = "10s") Duration retryAfter) {
+            this.client = client;
+            this.enabled = enabled;
+            this.maxBacklogs = new long[]{maxWorkflowBacklog, maxTranslationBacklog};
+            this.maxInFlight = maxInFlight;
+            this.maxWait = maxWait;
+            this.retryAfter = retryAfter;
+            this.inFlight = new Semaphore(maxInFlight);
+            this.registry = registry;
+            this.sampleInterval = sampleInterval;
+            // Only nodes serving the REST API start workflows
+            this.sampled = enabled && roles.has(HelloRole.API);
+
+            for (var reason : Reason.values()) {
+                this.rejected[reason.ordinal()] = Counter.builder("hello.admission.rejected")
+                        .description("Workflow starts rejected by the admission gate")
+                        .tag("reason", reason.name())
+                        .register(registry);
+            }
+        }
+
+        // Gauges and the sampler hold this gate : registered once it is fully constructed
+        @PostConstruct
+        void start() {
+
+            Gauge.builder("hello.admission.open", this, gate -> gate.isOpen() ? 1 : 0)
+                    .description("1 while workflow starts are admitted")
+                    .register(this.registry);
+            Gauge.builder("hello.admission.inflight", this, gate -> gate.maxInFlight - gate.inFlight.availablePermits())
+                    .description("Workflow starts in flight")
+                    .register(this.registry);
+            for (var queue : MonitoredQueue.values()) {
+                Gauge.builder("hello.admission.backlog", this.backlogs, backlogs -> backlogs[queue.ordinal()])
+                        .description("Last sampled backlog count hint")
+                        .tag("taskQueue", queue.taskQueue)
+                        .register(this.registry);
+                Gauge.builder("hello.admission.pollers", this.pollers, pollers -> pollers[queue.ordinal()])
+                        .description("Last sampled number of pollers")
+                        .tag("taskQueue", queue.taskQueue)
+                        .register(this.registry);
+            }
+
+            if (this.sampled) {
+                this.scheduler.scheduleWithFixedDelay(
+                        this::sample, 0, this.sampleInterval.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        /**
+         * Takes an in-flight start permit, to be given back with {@link #release()}.
+         * @return false when the start is rejected
+         */
+        public boolean tryAcquire() {
+
+            if (!this.enabled) {
+                return true;
+            }
+
+            var reason = this.closedBy;
+            if (Objects.isNull(reason)) {
+                try {
+                    if (this.inFlight.tryAcquire(this.maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                reason = Reason.IN_FLIGHT;
+            }
+
+            this.rejected[reason.ordinal()].increment();
+            return false;
+        }
+
+        public void release() {
+            if (this.enabled) {
+                this.inFlight.release();
+            }
+        }
+
+        public boolean isOpen() {
+            return !this.enabled || Objects.isNull(this.closedBy);
+        }
+
+        public Duration retryAfter() {
+            return this.retryAfter;
+        }
+
+        @PreDestroy
+        void close() {
+            this.scheduler.shutdownNow();
+        }
+
+        private void sample() {
+
+            Reason reason = null;
+            for (var queue : MonitoredQueue.values()) {
+                try {
+                    var response = this.client.getWorkflowServiceStubs().blockingStub()
+                            .describeTaskQueue(DescribeTaskQueueRequest.newBuilder()
+                                    .setNamespace(this.client.getOptions().getNamespace())
+                                    .setTaskQueue(TaskQueue.newBuilder().setName(queue.taskQueue).build())
+                                    .setTaskQueueType(queue.type)
+                                    .setIncludeTaskQueueStatus(true)
+                                    .build());
+
+                    var backlog = response.getTaskQueueStatus().getBacklogCountHint();
+                    var pollers = response.getPollersCount();
+                    this.backlogs[queue.ordinal()] = backlog;
+                    this.pollers[queue.ordinal()] = pollers;
+
+                    if (Objects.isNull(reason) && backlog > this.maxBacklogs[queue.ordinal()]) {
+                        reason = queue.backlogReason;
+                    } else if (Objects.isNull(reason) && backlog > 0 && pollers == 0) {
+                        reason = Reason.NO_POLLERS;
+                    }
+                }
+                // Fails open : starts are not blocked because the task queue cannot be described
+                catch (Exception e) {
+                    Log.warnf(e, "Unable to describe %s", queue.taskQueue);
+                }
+            }
+
+            if (reason != this.closedBy) {
+                Log.infof("Admission gate %s", Objects.isNull(reason) ? "open" : "closed : " + reason);
+            }
+            this.closedBy = reason;
+        }
     }
 
-    public static class CorporateSearchAttributes {
+    /**
+     * Domain level meters, tagged by langageCode and final status.
+     * All meters are registered up front : recording is an array lookup, with no tag or meter allocation.
+     */
+    @Singleton
+    @Unremovable
+    public static class HelloWorkflowMetrics {
 
-        public static final SearchAttributeKey<String> HELLO_WORKFLOW_STATUS = SearchAttributeKey.forKeyword("OrgCustomStatus");
+        private static final HelloWorkflowStatus[] FINAL_STATUSES = {HelloWorkflowStatus.COMPLETED, HelloWorkflowStatus.ERROR};
 
-        private CorporateSearchAttributes() {}
+        private final Timer[] startLatency;
+        private final Timer[] waitingTime;
+        private final DistributionSummary[][] translationAttempts;
+        private final Counter[][] translationFailures;
+        private final Timer[][] completionTime;
 
-        public static void setStatus(HelloWorkflowStatus status) {
-            var update = SearchAttributeUpdate.valueSet(HELLO_WORKFLOW_STATUS, status.name());
-            Workflow.upsertTypedSearchAttributes(update);
+        public HelloWorkflowMetrics(MeterRegistry registry) {
+
+            var langageCodes = LangageCode.values().length + 1;
+            this.startLatency = new Timer[langageCodes];
+            this.waitingTime = new Timer[langageCodes];
+            this.translationAttempts = new DistributionSummary[langageCodes][FINAL_STATUSES.length];
+            this.translationFailures = new Counter[langageCodes][RetryState.values().length];
+            this.completionTime = new Timer[langageCodes][FINAL_STATUSES.length];
+
+            for (int l = 0; l < langageCodes; l++) {
+                var langageCode = l < LangageCode.values().length ? LangageCode.values()[l].name() : "none";
+
+                this.startLatency[l] = Timer.builder("hello.workflow.start")
+                        .description("Start call latency, as seen by the client")
+                        .tag("langageCode", langageCode)
+                        .publishPercentileHistogram()
+                        .register(registry);
+                this.waitingTime[l] = Timer.builder("hello.workflow.waiting")
+                        .description("Time spent waiting for the langageCode")
+                        .tag("langageCode", langageCode)
+                        .publishPercentileHistogram()
+                        .register(registry);
+
+                for (int s = 0; s < FINAL_STATUSES.length; s++) {
+                    this.translationAttempts[l][s] = DistributionSummary.builder("hello.translation.attempts")
+                            .description("Translation attempts per workflow")
+                            .tag("langageCode", langageCode)
+                            .tag("status", FINAL_STATUSES[s].name())
+                            .publishPercentileHistogram()
+                            .register(registry);
+                    this.completionTime[l][s] = Timer.builder("hello.workflow.completion")
+                            .description("End to end workflow completion time")
+                            .tag("langageCode", langageCode)
+                            .tag("status", FINAL_STATUSES[s].name())
+                            .publishPercentileHistogram()
+                            .register(registry);
+                }
+
+                for (var retryState : RetryState.values()) {
+                    if (retryState == RetryState.UNRECOGNIZED) {
+                        continue;
+                    }
+                    this.translationFailures[l][retryState.ordinal()] = Counter.builder("hello.translation.failures")
+                            .description("Translations failed once their retries were over")
+                            .tag("langageCode", langageCode)
+                            .tag("retryState", retryState.name().substring("RETRY_STATE_".length()))
+                            .register(registry);
+                }
+            }
+        }
+
+        public void recordStart(LangageCode langageCode, long nanos) {
+            this.startLatency[index(langageCode)].record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        public void recordWaiting(LangageCode langageCode, long millis) {
+            this.waitingTime[index(langageCode)].record(millis, TimeUnit.MILLISECONDS);
+        }
+
+        public void recordTranslationAttempts(LangageCode langageCode, HelloWorkflowStatus status, int attempts) {
+            this.translationAttempts[index(langageCode)][index(status)].record(attempts);
+        }
+
+        public void recordTranslationFailure(LangageCode langageCode, RetryState retryState) {
+            this.translationFailures[index(langageCode)][index(retryState)].increment();
+        }
+
+        public void recordCompletion(LangageCode langageCode, HelloWorkflowStatus status, long millis) {
+            this.completionTime[index(langageCode)][index(status)].record(millis, TimeUnit.MILLISECONDS);
+        }
+
+        private static int index(LangageCode langageCode) {
+            return Objects.isNull(langageCode) ? LangageCode.values().length : langageCode.ordinal();
+        }
+
+        private static int index(HelloWorkflowStatus status) {
+            return status == HelloWorkflowStatus.COMPLETED ? 0 : 1;
+        }
+
+        private static int index(RetryState retryState) {
+            return retryState == RetryState.UNRECOGNIZED ? RetryState.RETRY_STATE_UNSPECIFIED.ordinal() : retryState.ordinal();
+        }
+    }
+
+    /**
+     * Records start call latency on the client side.
+     */
+    @Singleton
+    @Unremovable
+    public static class HelloMetricsClientInterceptor extends WorkflowClientInterceptorBase {
+
+        private final HelloWorkflowMetrics metrics;
+
+        public HelloMetricsClientInterceptor(HelloWorkflowMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public WorkflowClientCallsInterceptor workflowClientCallsInterceptor(WorkflowClientCallsInterceptor next) {
+            return new WorkflowClientCallsInterceptorBase(next) {
+
+                @Override
+                public WorkflowStartOutput start(WorkflowStartInput input) {
+                    // Campaigns are not greetings
+                    if (!"HelloWorkflow".equals(input.getWorkflowType())) {
+                        return super.start(input);
+                    }
+                    var start = System.nanoTime();
+                    try {
+                        return super.start(input);
+                    } finally {
+                        metrics.recordStart(langageCode(input.getArguments()), System.nanoTime() - start);
+                    }
+                }
+
+                @Override
+                public WorkflowSignalWithStartOutput signalWithStart(WorkflowSignalWithStartInput input) {
+                    var start = System.nanoTime();
+                    try {
+                        return super.signalWithStart(input);
+                    } finally {
+                        metrics.recordStart(langageCode(input.getSignalArguments()), System.nanoTime() - start);
+                    }
+                }
+            };
+        }
+
+        private static LangageCode langageCode(Object[] arguments) {
+            if (arguments.length > 0 && arguments[0] instanceof HelloRequest helloRequest) {
+                return helloRequest.languageCode();
+            }
+            if (arguments.length > 0 && arguments[0] instanceof LangageCode langageCode) {
+                return langageCode;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Records waiting time, translation attempts and completion time on the worker side.
+     * Nothing is recorded while a workflow is replaying, the values were recorded on first execution.
+     * <p>
+     * A translation attempt only knows its own outcome : the activity side records the successful and the non retryable ones,
+     * with their attempt number, the workflow side records every translation failing once its retries are over,
+     * including the retries exhausted or the timeouts the activity never sees as final.
+     */
+    @Singleton
+    @Unremovable
+    public static class HelloMetricsWorkerInterceptor extends WorkerInterceptorBase {
+
+        private final HelloWorkflowMetrics metrics;
+
+        public HelloMetricsWorkerInterceptor(HelloWorkflowMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public WorkflowInboundCallsInterceptor interceptWorkflow(WorkflowInboundCallsInterceptor next) {
+            return new WorkflowInboundCallsInterceptorBase(next) {
+
+                private LangageCode langageCode;
+
+                @Override
+                public void init(WorkflowOutboundCallsInterceptor outboundCalls) {
+                    super.init(new WorkflowOutboundCallsInterceptorBase(outboundCalls) {
+
+                        @Override
+                        public <R> ActivityOutput<R> executeActivity(ActivityInput<R> input) {
+                            var output = super.executeActivity(input);
+                            if ("TranslateHello".equals(input.getActivityName())) {
+                                recordFailure(output.getResult(), input.getArgs(), input.getOptions().getRetryOptions());
+                            }
+                            return output;
+                        }
+
+                        @Override
+                        public <R> LocalActivityOutput<R> executeLocalActivity(LocalActivityInput<R> input) {
+                            var output = super.executeLocalActivity(input);
+                            if ("TranslateHello".equals(input.getActivityName())) {
+                                recordFailure(output.getResult(), input.getArgs(), input.getOptions().getRetryOptions());
+                            }
+                            return output;
+                        }
+                    });
+                }
+
+                @Override
+                public WorkflowOutput execute(WorkflowInput input) {
+
+                    if (!isHelloWorkflow()) {
+                        return super.execute(input);
+                    }
+
+                    if (input.getArguments()[0] instanceof HelloRequest helloRequest
+                            && !Objects.isNull(helloRequest.languageCode())) {
+                        this.langageCode = helloRequest.languageCode();
+                    }
+
+                    WorkflowOutput output;
+                    // Failures only : an evicted workflow is unwound by DestroyWorkflowThreadError, an Error, and is not over
+                    try {
+                        output = super.execute(input);
+                    } catch (RuntimeException e) {
+                        this.recordCompletion(HelloWorkflowStatus.ERROR);
+                        throw e;
+                    }
+                    this.recordCompletion(HelloWorkflowStatus.COMPLETED);
+                    return output;
+                }
+
+                private void recordCompletion(HelloWorkflowStatus status) {
+                    if (!WorkflowUnsafe.isReplaying()) {
+                        metrics.recordCompletion(this.langageCode, status, elapsedMillis());
+                    }
+                }
+
+                @Override
+                public void handleSignal(SignalInput input) {
+                    this.receive(input.getArguments());
+                    super.handleSignal(input);
+                }
+
+                @Override
+                public UpdateOutput executeUpdate(UpdateInput input) {
+                    this.receive(input.getArguments());
+                    return super.executeUpdate(input);
+                }
+
+                private void receive(Object[] arguments) {
+                    if (isHelloWorkflow()
+                            && Objects.isNull(this.langageCode)
+                            && arguments.length > 0
+                            && arguments[0] instanceof LangageCode received) {
+                        this.langageCode = received;
+                        if (!WorkflowUnsafe.isReplaying()) {
+                            metrics.recordWaiting(received, elapsedMillis());
+                        }
+                    }
+                }
+            };
+        }
+
+        @Override
+        public ActivityInboundCallsInterceptor interceptActivity(ActivityInboundCallsInterceptor next) {
+            return new ActivityInboundCallsInterceptorBase(next) {
+
+                // Activity.getExecutionContext() is only bound once the activity method is invoked
+                private ActivityExecutionContext context;
+
+                @Override
+                public void init(ActivityExecutionContext context) {
+                    this.context = context;
+                    super.init(context);
+                }
+
+                @Override
+                public ActivityOutput execute(ActivityInput input) {
+
+                    var info = this.context.getInfo();
+                    if (!"TranslateHello".equals(info.getActivityType())) {
+                        return super.execute(input);
+                    }
+
+                    var langageCode = (LangageCode) input.getArguments()[0];
+                    try {
+                        var output = super.execute(input);
+                        // Completed asynchronously : recorded by the activity on completion
+                        if (this.context.isDoNotCompleteOnReturn()) {
+                            return output;
+                        }
+                        metrics.recordTranslationAttempts(langageCode, HelloWorkflowStatus.COMPLETED, info.getAttempt());
+                        return output;
+                    } catch (ApplicationFailure applicationFailure) {
+                        // Retryable failures are followed by another attempt
+                        if (applicationFailure.isNonRetryable()) {
+                            metrics.recordTranslationAttempts(langageCode, HelloWorkflowStatus.ERROR, info.getAttempt());
+                        }
+                        throw applicationFailure;
+                    }
+                }
+            };
+        }
+
+        private void recordFailure(Promise<?> result, Object[] arguments, RetryOptions retryOptions) {
+            var langageCode = (LangageCode) arguments[0];
+            // The activity promise only fails once the retries are over
+            result.exceptionally(failure -> {
+                if (!WorkflowUnsafe.isReplaying() && failure instanceof ActivityFailure activityFailure) {
+                    var retryState = activityFailure.getRetryState();
+                    metrics.recordTranslationFailure(langageCode, retryState);
+                    // Non retryable failures are recorded by the activity, with their attempt number
+                    if (retryState == RetryState.RETRY_STATE_MAXIMUM_ATTEMPTS_REACHED && !Objects.isNull(retryOptions)) {
+                        metrics.recordTranslationAttempts(langageCode, HelloWorkflowStatus.ERROR, retryOptions.getMaximumAttempts());
+                    }
+                }
+                return null;
+            });
+        }
+
+        private static boolean isHelloWorkflow() {
+            return "HelloWorkflow".equals(Workflow.getInfo().getWorkflowType());
+        }
+
+        private static long elapsedMillis() {
+            return Workflow.currentTimeMillis() - Workflow.getInfo().getRunStartedTimestampMillis();
+        }
+    }
+
+    @Singleton
+    public static class HelloDataConverterProducer {
+
+        @jakarta.enterprise.inject.Produces
+        @Singleton
+        DataConverter dataConverter(
+                @ConfigProperty(name = "hello.payload.binary", defaultValue = "false") boolean binary,
+                @ConfigProperty(name = "hello.payload.compression-threshold", defaultValue = "0") int compressionThreshold) {
+            return helloDataConverter(binary, compressionThreshold);
+        }
+    }
+
+    public static class HelloWorkflowImpl implements HelloWorkflow {
+
+        private LangageCode langageCode;
+
+        private HelloWorkflowStatus status;
+
+        private HelloResponse helloResponse;
+
+        private final TranslationMode translationMode = HelloWorkflowMemo.translationMode();
+
+        private final CorporateSearchAttributes.StatusBuffer statusBuffer =
+                new CorporateSearchAttributes.StatusBuffer(HelloWorkflowMemo.statusTracking());
+
+        private final RetryProfile retryProfile = HelloWorkflowMemo.retryProfile();
+
+        ActivityOptions options = switch (this.retryProfile) {
+            case DEFAULT -> ActivityOptions.newBuilder()
+                    .setStartToCloseTimeout(Duration.ofSeconds(30))
+                    .setRetryOptions(RetryOptions.newBuilder()
+                            .setInitialInterval(Duration.ofSeconds(1))
+                            .setMaximumInterval(Duration.ofSeconds(100))
+                            .setBackoffCoefficient(2)
+                            .setMaximumAttempts(500)
+                            .build())
+                    .build();
+            // Tight backoff cap, and a total time budget instead of an attempt count
+            case LOW_LATENCY -> ActivityOptions.newBuilder()
+                    .setStartToCloseTimeout(Duration.ofSeconds(2))
+                    .setScheduleToCloseTimeout(Duration.ofSeconds(30))
+                    .setRetryOptions(RetryOptions.newBuilder()
+                            .setInitialInterval(Duration.ofMillis(100))
+                            .setMaximumInterval(Duration.ofSeconds(1))
+                            .setBackoffCoefficient(1.5)
+                            .build())
+                    .build();
+        };
+
+        // Translation is an in-memory switch : as a local activity it runs inside the workflow task
+        LocalActivityOptions localOptions = switch (this.retryProfile) {
+            case DEFAULT -> LocalActivityOptions.newBuilder()
+                    .setStartToCloseTimeout(Duration.ofSeconds(5))
+                    .setLocalRetryThreshold(Duration.ofSeconds(10))
+                    .setRetryOptions(RetryOptions.newBuilder()
+                            .setInitialInterval(Duration.ofMillis(100))
+                            .setMaximumInterval(Duration.ofSeconds(10))
+                            .setBackoffCoefficient(2)
+                            .setMaximumAttempts(500)
+                            .build())
+                    .build();
+            case LOW_LATENCY -> LocalActivityOptions.newBuilder()
+                    .setStartToCloseTimeout(Duration.ofSeconds(2))
+                    .setScheduleToCloseTimeout(Duration.ofSeconds(30))
+                    .setLocalRetryThreshold(Duration.ofSeconds(10))
+                    .setRetryOptions(RetryOptions.newBuilder()
+                            .setInitialInterval(Duration.ofMillis(50))
+                            .setMaximumInterval(Duration.ofSeconds(1))
+                            .setBackoffCoefficient(1.5)
+                            .build())
+                    .build();
+        };
+
+        HelloTranslationActivity helloTranslationActivity = switch (this.translationMode) {
+            case ACTIVITY -> Workflow.newActivityStub(
+                    HelloTranslationActivity.class,
+                    ActivityOptions.newBuilder(options)
+                            .setTaskQueue("hello-translation-task-queue")
+                            .setCancellationType(ActivityCancellationType.WAIT_CANCELLATION_COMPLETED)
+                            .build()
+            );
+            case LOCAL_ACTIVITY -> Workflow.newLocalActivityStub(HelloTranslationActivity.class, localOptions);
+        };
+
+        static final Logger LOGGER =  Workflow.getLogger("HelloWorkflow");
+
+        public HelloWorkflowImpl() {
+            this.setStatus(HelloWorkflowStatus.INITIAL);
+        }
+
+        public HelloResponse sayHello(HelloRequest helloRequest) {
+
+            LOGGER.info("Say Hello To {}", helloRequest.name());
+
+            // May already be set by signal-with-start or update-with-start
+            if (!Objects.isNull(helloRequest.languageCode())) {
+                this.langageCode = helloRequest.languageCode();
+            }
+
+            if (Objects.isNull(this.langageCode)) {
+                LOGGER.info("Waiting Signal langageCode ...");
+                this.setStatus(HelloWorkflowStatus.WAITING);
+                this.statusBuffer.checkpoint();
+                Workflow.await(() -> !Objects.isNull(this.langageCode));
+            }
+
+            // A regular activity ends the workflow task, a local activity does not
+            if (this.translationMode == TranslationMode.ACTIVITY) {
+                this.statusBuffer.checkpoint();
+            }
+
+            String translateResult;
+            try {
+                translateResult = this.helloTranslationActivity.translateHello(this.langageCode);
+            }
+            // For Non Retryable Application Failure
+            catch (ActivityFailure activityFailure) {
+                LOGGER.error(activityFailure.getMessage(), activityFailure);
+                this.setStatus(HelloWorkflowStatus.ERROR);
+                this.statusBuffer.flush();
+                throw activityFailure;
+            }
+
+            this.helloResponse =  HelloResponse.of("%s %s !".formatted(translateResult, helloRequest.name()));
+
+            this.setStatus(HelloWorkflowStatus.COMPLETED);
+            this.statusBuffer.flush();
+
+            return this.helloResponse;
+        }
+
+        public void langageCode(LangageCode langageCode) {
+            LOGGER.info("Receive Signal langageCode : {}", langageCode);
+            this.langageCode = langageCode;
+        }
+
+        public HelloResponse greet(LangageCode langageCode) {
+            LOGGER.info("Receive Update greet : {}", langageCode);
+            this.langageCode = langageCode;
+            Workflow.await(() -> !Objects.isNull(this.helloResponse));
+            return this.helloResponse;
+        }
+
+        public void validateGreet(LangageCode langageCode) {
+            if (Objects.isNull(langageCode)) {
+                throw new IllegalArgumentException("langageCode is required");
+            }
+            if (!Objects.isNull(this.langageCode) && this.langageCode != langageCode) {
+                throw new IllegalStateException("langageCode already set to %s".formatted(this.langageCode));
+            }
+        }
+
+        public HelloWorkflowStatus status() {
+            return this.status;
+        }
+
+        private void setStatus(HelloWorkflowStatus status) {
+            this.status = status;
+            this.statusBuffer.set(status);
+        }
+
+    }
+
+
+    @WorkflowInterface
+    public interface HelloWorkflow {
+
+        @WorkflowMethod
+        HelloResponse sayHello(HelloRequest helloRequest);
+
+        @SignalMethod
+        void langageCode(LangageCode langageCode);
+
+        @UpdateMethod
+        HelloResponse greet(LangageCode langageCode);
+
+        @UpdateValidatorMethod(updateName = "greet")
+        void validateGreet(LangageCode langageCode);
+
+        @QueryMethod
+        HelloWorkflowStatus status();
+
+    }
+
+    @WorkflowInterface
+    public interface HelloCampaignWorkflow {
+
+        @WorkflowMethod
+        HelloCampaignProgress run(HelloCampaign campaign);
+
+        @QueryMethod
+        HelloCampaignProgress progress();
+
+    }
+
+    /**
+     * Greets every name of a campaign with a child {@link HelloWorkflow}, at most {@code maxConcurrency} at a time.
+     * Names are read one page at a time by {@link HelloCampaignSourceActivity}, each run only carries its cursor, and the workflow continues
+     * as new every {@code childrenPerRun} children, or sooner when the server suggests it, to keep its history small.
+     */
+    public static class HelloCampaignWorkflowImpl implements HelloCampaignWorkflow {
+
+        static final Logger LOGGER = Workflow.getLogger("HelloCampaignWorkflow");
+
+        private final HelloCampaignSourceActivity sourceActivity = Workflow.newActivityStub(
+                HelloCampaignSourceActivity.class,
+                ActivityOptions.newBuilder()
+                        .setTaskQueue("hello-translation-task-queue")
+                        .setStartToCloseTimeout(Duration.ofMinutes(1))
+                        .build());
+
+        // Cumulated over every run of the campaign
+        private long started;
+        private long completed;
+        private long failed;
+        private int runs;
+        private boolean finished;
+
+        private int inFlight;
+
+        public HelloCampaignProgress run(HelloCampaign campaign) {
+
+            if (!Objects.isNull(campaign.progress())) {
+                this.started = campaign.progress().started();
+                this.completed = campaign.progress().completed();
+                this.failed = campaign.progress().failed();
+                this.runs = campaign.progress().runs();
+            }
+            this.runs++;
+
+            // Children run with the settings of the campaign
+            var memo = HelloWorkflowMemo.current();
+            var campaignId = Workflow.getInfo().getWorkflowId();
+            var startedThisRun = 0;
+            var cursor = campaign.cursor();
+
+            do {
+                var page = this.nextPage(campaign, cursor);
+                for (var name : page.names()) {
+                    Workflow.await(() -> this.inFlight < campaign.maxConcurrency());
+                    this.startChild(campaignId, name, campaign.languageCode(), memo);
+                    startedThisRun++;
+                }
+                cursor = page.nextCursor();
+            } while (!Objects.isNull(cursor)
+                    && startedThisRun < campaign.childrenPerRun()
+                    && !Workflow.getInfo().isContinueAsNewSuggested());
+
+            // Child promises do not survive continue-as-new
+            Workflow.await(() -> this.inFlight == 0);
+
+            if (!Objects.isNull(cursor)) {
+                LOGGER.info("Campaign run {} done, {} greetings started : continue as new", this.runs, this.started);
+                Workflow.continueAsNew(
+                        ContinueAsNewOptions.newBuilder().setMemo(memo).build(),
+                        campaign.next(cursor, this.progress()));
+            }
+
+            this.finished = true;
+            return this.progress();
+        }
+
+        public HelloCampaignProgress progress() {
+            return new HelloCampaignProgress(this.started, this.completed, this.failed, this.runs, this.finished);
+        }
+
+        private HelloCampaignPage nextPage(HelloCampaign campaign, String cursor) {
+            return this.sourceActivity.fetchNames(campaign.source(), cursor, campaign.pageSize());
+        }
+
+        private void startChild(String campaignId, String name, LangageCode languageCode, Map<String, Object> memo) {
+
+            // Deterministic ids : a child is never started twice for the same name
+            var child = Workflow.newChildWorkflowStub(HelloWorkflow.class, ChildWorkflowOptions.newBuilder()
+                    .setWorkflowId("%s-%d".formatted(campaignId, this.started++))
+                    .setTaskQueue("hello-workflow-task-queue")
+                    .setMemo(memo)
+                    .build());
+
+            this.inFlight++;
+            Async.function(child::sayHello, HelloRequest.of(name, languageCode))
+                    .handle((helloResponse, failure) -> {
+                        this.inFlight--;
+                        if (Objects.isNull(failure)) {
+                            this.completed++;
+                        } else {
+                            this.failed++;
+                        }
+                        return null;
+                    });
+        }
+    }
+
+    @WorkflowInterface
+    public interface HelloCampaignNamesWorkflow {
+
+        @WorkflowMethod
+        void hold(List<String> names);
+
+        @QueryMethod
+        HelloCampaignPage page(String cursor, int pageSize);
+
+    }
+
+    /**
+     * Holds the inline names of a campaign : they are recorded once, in its own history, instead of in the input of every
+     * campaign run. It completes right away, its pages are queried (replayed) for as long as the namespace retention keeps it.
+     */
+    public static class HelloCampaignNamesWorkflowImpl implements HelloCampaignNamesWorkflow {
+
+        private List<String> names = List.of();
+
+        public void hold(List<String> names) {
+            this.names = names;
+        }
+
+        public HelloCampaignPage page(String cursor, int pageSize) {
+            var from = Objects.isNull(cursor) ? 0 : Integer.parseInt(cursor);
+            var to = Math.min(this.names.size(), from + pageSize);
+            return new HelloCampaignPage(List.copyOf(this.names.subList(from, to)), to < this.names.size() ? String.valueOf(to) : null);
+        }
+    }
+
+    @Singleton
+    public static class HelloTranslationActivityImpl implements HelloTranslationActivity {
+
+        private final FaultInjection faultInjection;
+
+        private final TranslationBackend translationBackend;
+
+        private final boolean asyncCompletion;
+
+        private final HelloWorkflowMetrics metrics;
+
+        // Shared by every asynchronous completion
+        private final ActivityCompletionClient completionClient;
+
+        public HelloTranslationActivityImpl(
+                @ConfigProperty(name = "hello.fault.error-rate", defaultValue = "0.5") double errorRate,
+                @ConfigProperty(name = "hello.fault.latency", defaultValue = "0s") Duration latency,
+                @ConfigProperty(name = "hello.fault.error-type", defaultValue = "TranslateServiceUnavailable") String errorType,
+                @ConfigProperty(name = "hello.fault.non-retryable", defaultValue = "false") boolean nonRetryable,
+                @ConfigProperty(name = "hello.fault.seed") Optional<Long> seed,
+                @ConfigProperty(name = "hello.translation.backend", defaultValue = "STATIC") TranslationBackendType backendType,
+                @ConfigProperty(name = "hello.translation.http.url", defaultValue = "http://localhost:8090") String backendUrl,
+                @ConfigProperty(name = "hello.translation.http.timeout", defaultValue = "5s") Duration backendTimeout,
+                @ConfigProperty(name = "hello.translation.cache-ttl", defaultValue = "0s") Duration cacheTtl,
+                @ConfigProperty(name = "hello.translation.async-completion", defaultValue = "false") boolean asyncCompletion,
+                HelloWorkflowMetrics metrics,
+                WorkflowClient client) {
+            this.faultInjection = new FaultInjection(errorRate, latency, errorType, nonRetryable, seed.orElse(null));
+            this.translationBackend = TranslationBackend.create(backendType, backendUrl, backendTimeout, cacheTtl);
+            this.asyncCompletion = asyncCompletion;
+            this.metrics = metrics;
+            this.completionClient = client.newActivityCompletionClient();
+        }
+
+        public String translateHello(LangageCode languageCode) {
+
+            Log.infof("Translate Hello To %s", languageCode);
+
+            if (languageCode == LangageCode.wtf) {
+                throw ApplicationFailure.newNonRetryableFailure("invalid langage code: wtf","InvalidLangageCode");
+            }
+
+            var context = Activity.getExecutionContext();
+
+            // Completed later from the backend callback : the activity slot is released right away.
+            // Local activities cannot be completed asynchronously
+            if (this.asyncCompletion && !context.getInfo().isLocal()) {
+                var taskToken = context.getTaskToken();
+                var attempt = context.getInfo().getAttempt();
+                context.doNotCompleteOnReturn();
+                this.faultInjection.injectAsync(context.getInfo())
+                        .thenCompose(ignored -> this.translationBackend.translate(languageCode))
+                        .whenComplete((translation, failure) ->
+                                this.complete(taskToken, languageCode, attempt, translation, failure));
+                return null;
+            }
+
+            this.faultInjection.inject(context.getInfo());
+
+            try {
+                return this.translationBackend.translate(languageCode).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof ApplicationFailure applicationFailure ? applicationFailure : Activity.wrap(e.getCause());
+            }
+        }
+
+        private void complete(byte[] taskToken, LangageCode languageCode, int attempt, String translation, Throwable failure) {
+            try {
+                if (Objects.isNull(failure)) {
+                    this.completionClient.complete(taskToken, translation);
+                    this.metrics.recordTranslationAttempts(languageCode, HelloWorkflowStatus.COMPLETED, attempt);
+                    return;
+                }
+                var cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                this.completionClient.completeExceptionally(taskToken, cause instanceof Exception exception ? exception : new RuntimeException(cause));
+                // Retryable failures are followed by another attempt
+                if (cause instanceof ApplicationFailure applicationFailure && applicationFailure.isNonRetryable()) {
+                    this.metrics.recordTranslationAttempts(languageCode, HelloWorkflowStatus.ERROR, attempt);
+                }
+            } catch (ActivityCompletionException e) {
+                // e.g. timed out in the meantime
+                Log.warnf(e, "Unable to complete translation to %s", languageCode);
+            }
+        }
+    }
+
+
+    /**
+     * Failures and latency injected in the translation service.
+     * With a seed, each failure is drawn from the workflow id, the activity type and the attempt :
+     * the same calls fail from one run to another, whatever the threads and the order they run in.
+     * Activity ids are random UUIDs (seeded by the run id), they cannot take part in the draw.
+     */
+    public static class FaultInjection {
+
+        private final double errorRate;
+        private final Duration latency;
+        private final String errorType;
+        private final boolean nonRetryable;
+        private final Long seed;
+
+        public FaultInjection(double errorRate, Duration latency, String errorType, boolean nonRetryable, Long seed) {
+            this.errorRate = errorRate;
+            this.latency = latency;
+            this.errorType = errorType;
+            this.nonRetryable = nonRetryable;
+            this.seed = seed;
+        }
+
+        public void inject(ActivityInfo info) {
+
+            if (!this.latency.isZero()) {
+                try {
+                    Thread.sleep(this.latency);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw ApplicationFailure.newFailureWithCause(e.getMessage(), "Interrupted", e);
+                }
+            }
+
+            this.fail(this.draw(info));
+        }
+
+        /**
+         * Same as {@link #inject(ActivityInfo)}, without holding a thread during the latency.
+         */
+        public CompletableFuture<Void> injectAsync(ActivityInfo info) {
+            var draw = this.draw(info);
+            var executor = this.latency.isZero()
+                    ? (Executor) Runnable::run
+                    : CompletableFuture.delayedExecutor(this.latency.toNanos(), TimeUnit.NANOSECONDS);
+            return CompletableFuture.runAsync(() -> this.fail(draw), executor);
+        }
+
+        private double draw(ActivityInfo info) {
+            if (Objects.isNull(this.seed)) {
+                return ThreadLocalRandom.current().nextDouble();
+            }
+            var call = Objects.hash(info.getWorkflowId(), info.getActivityType(), info.getAttempt());
+            return new SplittableRandom(this.seed ^ call).nextDouble();
+        }
+
+        private void fail(double draw) {
+            if (draw < this.errorRate) {
+                var re = new RuntimeException("Translate Service temporarily unavailable");
+                throw this.nonRetryable
+                        ? ApplicationFailure.newNonRetryableFailureWithCause(re.getMessage(), this.errorType, re)
+                        : ApplicationFailure.newFailureWithCause(re.getMessage(), this.errorType, re);
+            }
+        }
+    }
+
+    /**
+     * Translation service called by {@link HelloTranslationActivity}.
+     */
+    public interface TranslationBackend {
+
+        CompletableFuture<String> translate(LangageCode languageCode);
+
+        static TranslationBackend create(TranslationBackendType type, String url, Duration timeout, Duration cacheTtl) {
+            TranslationBackend backend = switch (type) {
+                case STATIC -> new StaticTranslationBackend();
+                case HTTP -> new HttpTranslationBackend(url, timeout);
+            };
+            return cacheTtl.isZero() ? backend : new CachingTranslationBackend(backend, cacheTtl);
+        }
+    }
+
+    public static class StaticTranslationBackend implements TranslationBackend {
+
+        public CompletableFuture<String> translate(LangageCode languageCode) {
+            return CompletableFuture.completedFuture(switch (languageCode) {
+                case fr -> "Bonjour";
+                case es -> "Hola";
+                case en -> "Hello";
+                case wtf -> throw new IllegalArgumentException("invalid langage code: wtf");
+            });
+        }
+    }
+
+    /**
+     * {@code GET <url>/translate/<langageCode>} on a non-blocking HTTP client : no thread waits for the answer.
+     */
+    public static class HttpTranslationBackend implements TranslationBackend {
+
+        private final HttpClient httpClient;
+
+        private final String url;
+
+        private final Duration timeout;
+
+        public HttpTranslationBackend(String url, Duration timeout) {
+            this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+            this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+            this.timeout = timeout;
+        }
+
+        public CompletableFuture<String> translate(LangageCode languageCode) {
+
+            var request = HttpRequest.newBuilder(URI.create("%s/translate/%s".formatted(this.url, languageCode)))
+                    .timeout(this.timeout)
+                    .GET()
+                    .build();
+
+            return this.httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .thenApply(response -> {
+                        if (response.statusCode() != 200) {
+                            throw ApplicationFailure.newFailure(
+                                    "Translate Service answered %d".formatted(response.statusCode()), "TranslateServiceUnavailable");
+                        }
+                        return response.body();
+                    });
+        }
+    }
+
+    /**
+     * Keeps each translation for a TTL. Concurrent misses share the same call, failed calls are not kept.
+     */
+    public static class CachingTranslationBackend implements TranslationBackend {
+
+        private record Entry(CompletableFuture<String> translation, long expiresAt) {}
+
+        private final TranslationBackend delegate;
+
+        private final long ttlNanos;
+
+        private final Map<LangageCode, Entry> entries = new ConcurrentHashMap<>();
+
+        public CachingTranslationBackend(TranslationBackend delegate, Duration ttl) {
+            this.delegate = delegate;
+            this.ttlNanos = ttl.toNanos();
+        }
+
+        public CompletableFuture<String> translate(LangageCode languageCode) {
+            var now = System.nanoTime();
+            return this.entries.compute(languageCode, (key, entry) ->
+                    Objects.isNull(entry) || now - entry.expiresAt() > 0 || entry.translation().isCompletedExceptionally()
+                            ? new Entry(this.delegate.translate(key), now + this.ttlNanos)
+                            : entry
+            ).translation();
+        }
+    }
+
+    public enum TranslationBackendType {
+        STATIC, HTTP
+    }
+
+    @ActivityInterface
+    public interface HelloTranslationActivity {
+
+        @ActivityMethod
+        String translateHello(LangageCode languageCode);
+
+    }
+
+    /**
+     * Pages of campaign names :
+     * {@code generated:<count>} generates {@code count} names, {@code file:<path>} reads one name per line of a file
+     * under {@code hello.campaign.files-root} (file sources are disabled unless it is set),
+     * {@code inline:<workflowId>} queries the {@link HelloCampaignNamesWorkflow} holding the names given to the API.
+     * The cursor is an index for generated and inline names, a byte offset in files, so pages never re-read the start of the file.
+     */
+    @Singleton
+    public static class HelloCampaignSourceActivityImpl implements HelloCampaignSourceActivity {
+
+        private final WorkflowClient client;
+
+        private final Optional<java.nio.file.Path> filesRoot;
+
+        public HelloCampaignSourceActivityImpl(
+                WorkflowClient client,
+                @ConfigProperty(name = "hello.campaign.files-root") Optional<String> filesRoot) throws IOException {
+            this.client = client;
+            this.filesRoot = filesRoot.isPresent() ? Optional.of(Paths.get(filesRoot.get()).toRealPath()) : Optional.empty();
+        }
+
+        public HelloCampaignPage fetchNames(String source, String cursor, int pageSize) {
+
+            if (source.startsWith("inline:")) {
+                try {
+                    return this.client.newWorkflowStub(HelloCampaignNamesWorkflow.class, source.substring("inline:".length()))
+                            .page(cursor, pageSize);
+                } catch (WorkflowNotFoundException e) {
+                    throw ApplicationFailure.newNonRetryableFailure("Unknown campaign names " + source, "InvalidCampaignSource");
+                }
+            }
+
+            var offset = Objects.isNull(cursor) ? 0 : Long.parseLong(cursor);
+
+            try {
+                if (source.startsWith("generated:")) {
+                    var count = Long.parseLong(source.substring("generated:".length()));
+                    var to = Math.min(count, offset + pageSize);
+                    var names = LongStream.range(offset, to).mapToObj(index -> "Name-%d".formatted(index)).toList();
+                    return new HelloCampaignPage(names, to < count ? String.valueOf(to) : null);
+                }
+                if (source.startsWith("file:")) {
+                    return readNames(this.file(source.substring("file:".length())), offset, pageSize);
+                }
+            } catch (IOException e) {
+                throw Activity.wrap(e);
+            }
+
+            throw ApplicationFailure.newNonRetryableFailure("Unknown campaign source " + source, "InvalidCampaignSource");
+        }
+
+        /**
+         * Resolves a file source under the files root : sources come from API callers.
+         */
+        private java.nio.file.Path file(String path) throws IOException {
+
+            var root = this.filesRoot.orElseThrow(() -> ApplicationFailure.newNonRetryableFailure(
+                    "File campaign sources are disabled : set hello.campaign.files-root", "InvalidCampaignSource"));
+
+            var file = root.resolve(path).normalize();
+            // Also rejects symbolic links pointing out of the root
+            if (!file.startsWith(root) || !file.toRealPath().startsWith(root)) {
+                throw ApplicationFailure.newNonRetryableFailure("Campaign source out of the files root " + path, "InvalidCampaignSource");
+            }
+            return file;
+        }
+
+        private static HelloCampaignPage readNames(java.nio.file.Path file, long offset, int pageSize) throws IOException {
+
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ);
+                 var in = new BufferedInputStream(Channels.newInputStream(channel.position(offset)))) {
+
+                var names = new ArrayList<String>(pageSize);
+                var line = new ByteArrayOutputStream();
+                var position = offset;
+                int b;
+                while (names.size() < pageSize && (b = in.read()) != -1) {
+                    position++;
+                    if (b == '\n') {
+                        addName(names, line);
+                    } else {
+                        line.write(b);
+                    }
+                }
+                // Last line without line feed
+                addName(names, line);
+
+                return new HelloCampaignPage(names, position < channel.size() ? String.valueOf(position) : null);
+            }
+        }
+
+        private static void addName(List<String> names, ByteArrayOutputStream line) {
+            var name = line.toString(StandardCharsets.UTF_8).strip();
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+            line.reset();
+        }
+    }
+
+    @ActivityInterface
+    public interface HelloCampaignSourceActivity {
+
+        @ActivityMethod(name = "FetchCampaignNames")
+        HelloCampaignPage fetchNames(String source, String cursor, int pageSize);
+
+    }
+
+    /**
+     * A paged {@code source} (see {@link HelloCampaignSourceActivity}) and the cursor of the next page : names are never
+     * carried by the workflow input, inline ones are held by a {@link HelloCampaignNamesWorkflow}.
+     */
+    public record HelloCampaign(String source, LangageCode languageCode,
+                                int maxConcurrency, int pageSize, int childrenPerRun,
+                                String cursor, HelloCampaignProgress progress) {
+
+        public HelloCampaign next(String cursor, HelloCampaignProgress progress) {
+            return new HelloCampaign(this.source, this.languageCode,
+                    this.maxConcurrency, this.pageSize, this.childrenPerRun, cursor, progress);
+        }
+    }
+
+    public record HelloCampaignRequest(@Size(max = 10000) List<@NotBlank String> names, String source, @NotNull LangageCode languageCode) {
+    }
+
+    public record HelloCampaignPage(List<String> names, String nextCursor) {
+    }
+
+    public record HelloCampaignProgress(long started, long completed, long failed, int runs, boolean finished) {
+    }
+
+    public record HelloRequest(String name, LangageCode languageCode) {
+        public static HelloRequest of(String name, LangageCode languageCode) {
+            return new HelloRequest(name, languageCode);
+        }
+    }
+
+    public record HelloBatchResult(String name, String workflowId, String error) {
+        public static HelloBatchResult started(HelloRequest helloRequest, String workflowId) {
+            return new HelloBatchResult(helloRequest.name(), workflowId, null);
+        }
+
+        public static HelloBatchResult failed(HelloRequest helloRequest, String error) {
+            return new HelloBatchResult(helloRequest.name(), null, error);
+        }
+    }
+
+    public record HelloResponse(String message) {
+        public static HelloResponse of(String message) {
+            return new HelloResponse(message);
+        }
+    }
+
+    public enum HelloRole {
+        API("api", null, null),
+        WORKFLOW_WORKER("workflow-worker", "hello-workflow-task-queue", "hello-workflow-worker"),
+        ACTIVITY_WORKER("activity-worker", "hello-translation-task-queue", "hello-translation-worker");
+
+        private final String key;
+        // Task queue and identity of the worker run by this role, if any
+        private final String taskQueue;
+        private final String worker;
+
+        HelloRole(String key, String taskQueue, String worker) {
+            this.key = key;
+            this.taskQueue = taskQueue;
+            this.worker = worker;
+        }
+
+        public static Set<HelloRole> of(List<String> keys) {
+            var roles = EnumSet.noneOf(HelloRole.class);
+            for (var key : keys) {
+                roles.add(Arrays.stream(values())
+                        .filter(role -> role.key.equals(key.trim()))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown hello role " + key)));
+            }
+            return roles;
+        }
+    }
+
+    public enum LangageCode {
+        fr, es, en, wtf
+    }
+
+    /**
+     * Retry and timeout options of the translation activity.
+     */
+    public enum RetryProfile {
+        DEFAULT, LOW_LATENCY
+    }
+
+    public enum TranslationMode {
+        ACTIVITY, LOCAL_ACTIVITY
+    }
+
+    /**
+     * When status changes are upserted as search attributes :
+     * EAGER on every change, COALESCED once per workflow task (last value wins), ON_CLOSE only the final status.
+     */
+    public enum StatusTracking {
+        EAGER, COALESCED, ON_CLOSE
+    }
+
+    public enum HelloWorkflowStatus {
+        INITIAL, WAITING, UNKNOWN, COMPLETED, ERROR;
+
+        public boolean isClosed() {
+            return this == COMPLETED || this == ERROR;
+        }
+    }
+
+    /**
+     * Bounded, access-ordered cache of workflow statuses.
+     * Open statuses expire quickly, closed ones (COMPLETED, ERROR) never change and are kept longer.
+     */
+    public static class HelloWorkflowStatusCache {
+
+        private record Entry(HelloWorkflowStatus status, long expiresAtNanos) {}
+
+        private final Map<String, Entry> entries;
+        private final long openTtlNanos;
+        private final long closedTtlNanos;
+
+        public HelloWorkflowStatusCache(int maxSize, Duration openTtl, Duration closedTtl) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxSize;
+                }
+            };
+            this.openTtlNanos = openTtl.toNanos();
+            this.closedTtlNanos = closedTtl.toNanos();
+        }
+
+        public synchronized Optional<HelloWorkflowStatus> get(String workflowId) {
+            var entry = this.entries.get(workflowId);
+            if (Objects.isNull(entry)) {
+                return Optional.empty();
+            }
+            if (entry.expiresAtNanos() - System.nanoTime() <= 0) {
+                this.entries.remove(workflowId);
+                return Optional.empty();
+            }
+            return Optional.of(entry.status());
+        }
+
+        public synchronized void put(String workflowId, HelloWorkflowStatus status) {
+            var ttl = status.isClosed() ? this.closedTtlNanos : this.openTtlNanos;
+            this.entries.put(workflowId, new Entry(status, System.nanoTime() + ttl));
+        }
+
+        public synchronized void invalidate(String workflowId) {
+            this.entries.remove(workflowId);
+        }
+    }
+
+    /**
+     * Per-execution settings, chosen by the client at start time.
+     * Read from the memo (and not from worker config) so that a replay always takes the same decisions.
+     */
+    public static class HelloWorkflowMemo {
+
+        public static final String TRANSLATION_MODE = "translationMode";
+
+        public static final String STATUS_TRACKING = "statusTracking";
+
+        public static final String RETRY_PROFILE = "retryProfile";
+
+        private HelloWorkflowMemo() {}
+
+        public static TranslationMode translationMode() {
+            return Optional.ofNullable(Workflow.getMemo(TRANSLATION_MODE, TranslationMode.class, TranslationMode.class))
+                    .orElse(TranslationMode.ACTIVITY);
+        }
+
+        public static StatusTracking statusTracking() {
+            return Optional.ofNullable(Workflow.getMemo(STATUS_TRACKING, StatusTracking.class, StatusTracking.class))
+                    .orElse(StatusTracking.EAGER);
+        }
+
+        public static RetryProfile retryProfile() {
+            return Optional.ofNullable(Workflow.getMemo(RETRY_PROFILE, RetryProfile.class, RetryProfile.class))
+                    .orElse(RetryProfile.DEFAULT);
+        }
+
+        /**
+         * Memo of the current workflow, to be given to its children and to its next run.
+         */
+        public static Map<String, Object> current() {
+            return Map.of(
+                    TRANSLATION_MODE, translationMode(),
+                    STATUS_TRACKING, statusTracking(),
+                    RETRY_PROFILE, retryProfile());
+        }
+    }
+
+    /**
+     * Compact binary encoding of the hello records, in place of JSON.
+     * Bare enums stay JSON : {@code "fr"} is already smaller than the longer encoding name costs.
+     * Binary payloads are always decoded, but only encoded when enabled : roll out decoding to every worker first.
+     * Strings are UTF-8 prefixed by a varint length (one byte up to 126 bytes) since version 3. Versions 1 ({@code writeUTF},
+     * up to 64 KB, enums written by name) and 2 (4 bytes length) are still decoded.
+     */
+    public static class HelloBinaryPayloadConverter implements PayloadConverter {
+
+        public static final String ENCODING = "binary/hello";
+
+        private static final ByteString ENCODING_BYTES = ByteString.copyFromUtf8(ENCODING);
+
+        private static final byte VERSION = 3;
+
+        private static final byte VERSION_INT_LENGTH = 2;
+
+        private static final byte VERSION_MODIFIED_UTF8 = 1;
+
+        private static final Set<Class<?>> ENCODED_TYPES = Set.of(HelloRequest.class, HelloResponse.class);
+
+        private static final Set<Class<?>> DECODED_TYPES = Set.of(
+                HelloRequest.class, HelloResponse.class,
+                LangageCode.class, HelloWorkflowStatus.class, TranslationMode.class, StatusTracking.class, RetryProfile.class);
+
+        private final boolean enabled;
+
+        public HelloBinaryPayloadConverter(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        @Override
+        public String getEncodingType() {
+            return ENCODING;
+        }
+
+        @Override
+        public Optional<Payload> toData(Object value) throws DataConverterException {
+
+            if (!this.enabled || Objects.isNull(value) || !ENCODED_TYPES.contains(value.getClass())) {
+                return Optional.empty();
+            }
+
+            var bytes = new ByteArrayOutputStream(32);
+            try (var out = new DataOutputStream(bytes)) {
+                out.writeByte(VERSION);
+                switch (value) {
+                    case HelloRequest helloRequest -> {
+                        writeString(out, helloRequest.name());
+                        writeString(out, Objects.isNull(helloRequest.languageCode()) ? null : helloRequest.languageCode().name());
+                    }
+                    case HelloResponse helloResponse -> writeString(out, helloResponse.message());
+                    default -> throw new IllegalArgumentException("Unsupported type " + value.getClass());
+                }
+            } catch (IOException e) {
+                throw new DataConverterException(e);
+            }
+
+            return Optional.of(Payload.newBuilder()
+                    .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ENCODING_BYTES)
+                    .setData(ByteString.copyFrom(bytes.toByteArray()))
+                    .build());
+        }
+
+        @Override
+        public <T> T fromData(Payload content, Class<T> valueClass, Type valueType) throws DataConverterException {
+
+            try (var in = new DataInputStream(content.getData().newInput())) {
+
+                var version = in.readByte();
+                if (version != VERSION && version != VERSION_INT_LENGTH && version != VERSION_MODIFIED_UTF8) {
+                    throw new IllegalArgumentException("Unsupported %s version %d".formatted(ENCODING, version));
+                }
+
+                Object value;
+                if (valueClass == HelloRequest.class) {
+                    var name = readString(in, version);
+                    var languageCode = readString(in, version);
+                    value = HelloRequest.of(name, Objects.isNull(languageCode) ? null : LangageCode.valueOf(languageCode));
+                } else if (valueClass == HelloResponse.class) {
+                    value = HelloResponse.of(readString(in, version));
+                } else if (valueClass.isEnum() && DECODED_TYPES.contains(valueClass)) {
+                    value = enumConstant(valueClass, readString(in, version));
+                } else {
+                    throw new IllegalArgumentException("Unsupported type " + valueClass);
+                }
+
+                return valueClass.cast(value);
+            } catch (IOException | IllegalArgumentException e) {
+                throw new DataConverterException(e);
+            }
+        }
+
+        // Varint of length + 1 (0 for null) then UTF-8 bytes : writeUTF is limited to 64 KB
+        private static void writeString(DataOutputStream out, String value) throws IOException {
+            if (Objects.isNull(value)) {
+                writeVarint(out, 0);
+                return;
+            }
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length + 1);
+            out.write(bytes);
+        }
+
+        private static String readString(DataInputStream in, byte version) throws IOException {
+            if (version == VERSION_MODIFIED_UTF8) {
+                return in.readBoolean() ? in.readUTF() : null;
+            }
+            var length = version == VERSION_INT_LENGTH ? in.readInt() : readVarint(in) - 1;
+            if (length < 0) {
+                return null;
+            }
+            var bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static void writeVarint(DataOutputStream out, int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+
+        private static int readVarint(DataInputStream in) throws IOException {
+            var value = 0;
+            for (var shift = 0; shift < 32; shift += 7) {
+                var b = in.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed %s length".formatted(ENCODING));
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static Object enumConstant(Class<?> enumClass, String name) {
+            return Enum.valueOf((Class) enumClass, name);
+        }
+    }
+
+    /**
+     * Compresses payloads bigger than a threshold (a threshold of 0 disables compression).
+     * Compressed payloads are always decoded.
+     */
+    public static class CompressionPayloadCodec implements PayloadCodec {
+
+        public static final String ENCODING = "binary/zlib";
+
+        private static final ByteString ENCODING_BYTES = ByteString.copyFromUtf8(ENCODING);
+
+        private final int threshold;
+
+        public CompressionPayloadCodec(int threshold) {
+            this.threshold = threshold;
+        }
+
+        @Override
+        public List<Payload> encode(List<Payload> payloads) {
+            return payloads.stream().map(this::encode).toList();
+        }
+
+        @Override
+        public List<Payload> decode(List<Payload> payloads) {
+            return payloads.stream().map(this::decode).toList();
+        }
+
+        private Payload encode(Payload payload) {
+
+            if (this.threshold <= 0 || payload.getSerializedSize() < this.threshold) {
+                return payload;
+            }
+
+            var bytes = new ByteArrayOutputStream(payload.getSerializedSize());
+            try (var out = new DeflaterOutputStream(bytes)) {
+                payload.writeTo(out);
+            } catch (IOException e) {
+                throw new PayloadCodecException(e);
+            }
+
+            // Incompressible : keep the original
+            if (bytes.size() >= payload.getSerializedSize()) {
+                return payload;
+            }
+
+            return Payload.newBuilder()
+                    .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ENCODING_BYTES)
+                    .setData(ByteString.copyFrom(bytes.toByteArray()))
+                    .build();
+        }
+
+        private Payload decode(Payload payload) {
+
+            if (!ENCODING_BYTES.equals(payload.getMetadataOrDefault(EncodingKeys.METADATA_ENCODING_KEY, ByteString.EMPTY))) {
+                return payload;
+            }
+
+            try (var in = new InflaterInputStream(payload.getData().newInput())) {
+                return Payload.parseFrom(in);
+            } catch (IOException e) {
+                throw new PayloadCodecException(e);
+            }
+        }
+    }
+
+    public static DataConverter helloDataConverter(boolean binary, int compressionThreshold) {
+
+        var converters = new ArrayList<PayloadConverter>();
+        // Before JSON, which accepts any object
+        converters.add(new HelloBinaryPayloadConverter(binary));
+        converters.addAll(Arrays.asList(DefaultDataConverter.STANDARD_PAYLOAD_CONVERTERS));
+
+        return new CodecDataConverter(
+                new DefaultDataConverter(converters.toArray(PayloadConverter[]::new)),
+                List.of(new CompressionPayloadCodec(compressionThreshold)));
+    }
+
+    public static class CorporateSearchAttributes {
+
+        public static final SearchAttributeKey<String> HELLO_WORKFLOW_STATUS = SearchAttributeKey.forKeyword("OrgCustomStatus");
+
+        private CorporateSearchAttributes() {}
+
+        public static void setStatus(HelloWorkflowStatus status) {
+            var update = SearchAttributeUpdate.valueSet(HELLO_WORKFLOW_STATUS, status.name());
+            Workflow.upsertTypedSearchAttributes(update);
+        }
+
+        /**
+         * Keeps the last status set and upserts it only at checkpoints, according to the {@link StatusTracking} mode.
+         * Each upsert is a history event and a visibility write : a value already upserted is never upserted again.
+         */
+        public static class StatusBuffer {
+
+            private final StatusTracking tracking;
+
+            private HelloWorkflowStatus pending;
+
+            private HelloWorkflowStatus upserted;
+
+            public StatusBuffer(StatusTracking tracking) {
+                this.tracking = tracking;
+            }
+
+            public void set(HelloWorkflowStatus status) {
+                this.pending = status;
+                if (this.tracking == StatusTracking.EAGER) {
+                    this.flush();
+                }
+            }
+
+            /**
+             * To call before the workflow task ends (blocking on a signal or an activity).
+             */
+            public void checkpoint() {
+                if (this.tracking == StatusTracking.COALESCED) {
+                    this.flush();
+                }
+            }
+
+            public void flush() {
+                if (!Objects.isNull(this.pending) && this.pending != this.upserted) {
+                    setStatus(this.pending);
+                    this.upserted = this.pending;
+                }
+                this.pending = null;
+            }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 21+
+//SOURCES MainSpringBoot.java
+//DEPS io.temporal:temporal-testing:1.27.0
+
+
+package temporal.hello;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.api.enums.v1.IndexedValueType;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.common.converter.DataConverter;
+import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.*;
+
+import static temporal.hello.MainSpringBoot.*;
+
+/**
+ * Compares the default JSON payloads with the binary {@link HelloBinaryPayloadConverter}, with and without compression :
+ * payload size, serialize/deserialize cost, and bytes per {@link HelloWorkflow} history on the in-memory Temporal test server.
+ * <pre>
+ * jbang -Diterations=1000000 -Dcompression_threshold=64 -Dname_length=512 temporal-say-hello-payload-benchmark@nzuguem
+ * </pre>
+ */
+public class PayloadCodecBenchmark {
+
+    record Codec(String name, DataConverter dataConverter) {
+    }
+
+    record Sample(String name, Object value, Class<?> type) {
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        var iterations = Integer.getInteger("iterations", 200_000);
+        var workflows = Integer.getInteger("workflows", 20);
+        var compressionThreshold = Integer.getInteger("compression_threshold", 64);
+        // A long name makes the payloads big enough to be compressed
+        var longName = "Kevin".repeat(Math.max(1, Integer.getInteger("name_length", 256) / 5));
+
+        var codecs = List.of(
+                new Codec("json", DefaultDataConverter.newDefaultInstance()),
+                new Codec("binary", helloDataConverter(true, 0)),
+                new Codec("binary+zlib", helloDataConverter(true, compressionThreshold)));
+
+        var samples = List.of(
+                new Sample("HelloRequest", HelloRequest.of("Kevin", LangageCode.es), HelloRequest.class),
+                new Sample("HelloRequest (long)", HelloRequest.of(longName, LangageCode.es), HelloRequest.class),
+                new Sample("HelloResponse", HelloResponse.of("Hola Kevin"), HelloResponse.class),
+                new Sample("HelloResponse (long)", HelloResponse.of("Hola " + longName), HelloResponse.class),
+                new Sample("LangageCode", LangageCode.fr, LangageCode.class));
+
+        System.out.printf("iterations=%d compressionThreshold=%d%n", iterations, compressionThreshold);
+
+        for (var sample : samples) {
+            System.out.printf("%n[%s]%n", sample.name());
+            for (var codec : codecs) {
+                measure(codec, sample, iterations / 10);
+                var result = measure(codec, sample, iterations);
+                System.out.printf("  %-12s : %5d bytes, serialize %7.1f ns/op, deserialize %7.1f ns/op, %6.1f bytes allocated/op%n",
+                        codec.name(), result[0], result[1] / 1.0 / iterations, result[2] / 1.0 / iterations, result[3] / 1.0 / iterations);
+            }
+        }
+
+        System.out.printf("%n[History size, %d workflows]%n", workflows);
+        for (var codec : codecs) {
+            System.out.printf("  %-12s : %.0f bytes/history (short name), %.0f bytes/history (long name)%n",
+                    codec.name(), historyBytes(codec, workflows, "Kevin"), historyBytes(codec, workflows, longName));
+        }
+
+        // The SDK keeps a non daemon thread (generic-wf-client-async-throttler) alive once environments are closed
+        System.exit(0);
+    }
+
+    /**
+     * @return payload size, serialize nanos, deserialize nanos, allocated bytes
+     */
+    static long[] measure(Codec codec, Sample sample, int iterations) {
+
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var threadId = Thread.currentThread().threadId();
+        var dataConverter = codec.dataConverter();
+        var payload = dataConverter.toPayload(sample.value()).orElseThrow();
+
+        var allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+
+        var blackhole = 0L;
+        var start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            blackhole += dataConverter.toPayload(sample.value()).map(Payload::getSerializedSize).orElse(0);
+        }
+        var serialize = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            blackhole += dataConverter.fromPayload(payload, sample.type(), sample.type()).hashCode();
+        }
+        var deserialize = System.nanoTime() - start;
+
+        var allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        if (blackhole == 42) {
+            System.out.print("");
+        }
+
+        return new long[]{payload.getSerializedSize(), serialize, deserialize, allocated};
+    }
+
+    static double historyBytes(Codec codec, int workflows, String name) {
+
+        var testEnv = TestWorkflowEnvironment.newInstance(TestEnvironmentOptions.newBuilder()
+                .setWorkflowClientOptions(WorkflowClientOptions.newBuilder()
+                        .setDataConverter(codec.dataConverter())
+                        .build())
+                .registerSearchAttribute(
+                        CorporateSearchAttributes.HELLO_WORKFLOW_STATUS.getName(),
+                        IndexedValueType.INDEXED_VALUE_TYPE_KEYWORD)
+                .build());
+
+        try {
+            var translationActivity = new HelloTranslationActivityImpl(
+                    new FaultInjection(0, Duration.ZERO, "TranslateServiceUnavailable", false, null),
+                    new StaticTranslationBackend(),
+                    false,
+                    new HelloWorkflowMetrics(new SimpleMeterRegistry()),
+                testEnv.getWorkflowClient());
+            var workflowWorker = testEnv.newWorker("hello-workflow-task-queue");
+            workflowWorker.registerWorkflowImplementationTypes(HelloWorkflowImpl.class);
+            workflowWorker.registerActivitiesImplementations(translationActivity);
+            testEnv.newWorker("hello-translation-task-queue")
+                    .registerActivitiesImplementations(translationActivity);
+            testEnv.start();
+
+            var client = testEnv.getWorkflowClient();
+            var memo = Map.<String, Object>of(
+                    HelloWorkflowMemo.TRANSLATION_MODE, TranslationMode.ACTIVITY,
+                    HelloWorkflowMemo.STATUS_TRACKING, StatusTracking.EAGER,
+                    HelloWorkflowMemo.RETRY_PROFILE, RetryProfile.DEFAULT);
+
+            var bytes = 0L;
+            for (int i = 0; i < workflows; i++) {
+                var workflowId = "payload-%s-%s".formatted(codec.name(), UUID.randomUUID());
+                var workflow = client.newWorkflowStub(HelloWorkflow.class, WorkflowOptions.newBuilder()
+                        .setWorkflowId(workflowId)
+                        .setMemo(memo)
+                        .setTaskQueue("hello-workflow-task-queue").build());
+                workflow.sayHello(HelloRequest.of(name, LangageCode.values()[i % 3]));
+                bytes += client.fetchHistory(workflowId).getHistory().getSerializedSize();
+            }
+            return (double) bytes / workflows;
+        } finally {
+            testEnv.close();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 21+
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for the remote translation service called by the {@code HTTP} translation backend :
+ * {@code GET /translate/<langageCode>} answers the greeting as plain text, after a latency, or 503 at the given error rate.
+ * <pre>
+ * jbang -Dport=8090 -Dlatency=PT0.2S -Derror_rate=0.1 temporal-translation-stub@nzuguem
+ * </pre>
+ */
+public class TranslationStubServer {
+
+    static final Map<String, String> TRANSLATIONS = Map.of(
+            "fr", "Bonjour",
+            "es", "Hola",
+            "en", "Hello");
+
+    public static void main(String[] args) throws IOException {
+
+        var port = Integer.getInteger("port", 8090);
+        var latency = Duration.parse(System.getProperty("latency", "PT0S"));
+        var errorRate = Double.parseDouble(System.getProperty("error_rate", "0"));
+
+        var server = HttpServer.create(new InetSocketAddress(port), 0);
+        // One virtual thread per request : the latency does not bound the server throughput
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/translate/", exchange -> {
+            try (exchange) {
+                if (!latency.isZero()) {
+                    Thread.sleep(latency);
+                }
+
+                var translation = TRANSLATIONS.get(exchange.getRequestURI().getPath().substring("/translate/".length()));
+                if (Objects.isNull(translation)) {
+                    send(exchange, 404, "unknown langage code");
+                } else if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                    send(exchange, 503, "unavailable");
+                } else {
+                    send(exchange, 200, translation);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+
+        System.out.printf("Translation stub listening on :%d (latency=%s errorRate=%.2f)%n", port, latency, errorRate);
+    }
+
+    static void send(HttpExchange exchange, int status, String body) throws IOException {
+        var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+}
@@ -0,0 +1,186 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 21+
+//SOURCES MainSpringBoot.java
+
+
+package temporal.hello;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.serviceclient.WorkflowServiceStubs;
+import io.temporal.serviceclient.WorkflowServiceStubsOptions;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static temporal.hello.MainSpringBoot.*;
+
+/**
+ * Measures workflow starts (or signals) per second against a Temporal server, through a {@link HelloWorkflowClientPool}
+ * of 1, 2, 4... channels. No worker polls the task queue : only the client and the server are measured, and the
+ * started workflows time out after {@code workflow_timeout}.
+ * <pre>
+ * temporal server start-dev
+ * jbang -Dchannels=1,2,4,8 -Dconcurrency=1000 -Dduration=PT30S temporal-say-hello-start-benchmark@nzuguem
+ * jbang -Doperation=SIGNAL -Dchannels=1,4 temporal-say-hello-start-benchmark@nzuguem
+ * </pre>
+ */
+public class WorkflowStartBenchmark {
+
+    enum Operation {
+        // one new workflow per call
+        START,
+        // langageCode signal to workflows started up front
+        SIGNAL
+    }
+
+    record BenchmarkResult(int channels, long calls, long errors, long elapsedNanos, long[] latenciesNanos) {
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        var target = System.getProperty("target", "localhost:7233");
+        var namespace = System.getProperty("namespace", "default");
+        var operation = Operation.valueOf(System.getProperty("operation", "START"));
+        var channelCounts = Arrays.stream(System.getProperty("channels", "1,2,4,8").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        var concurrency = Integer.getInteger("concurrency", 500);
+        var duration = Duration.parse(System.getProperty("duration", "PT20S"));
+        var warmup = Duration.parse(System.getProperty("warmup", "PT5S"));
+        var workflowTimeout = Duration.parse(System.getProperty("workflow_timeout", "PT2M"));
+
+        System.out.printf("target=%s namespace=%s operation=%s concurrency=%d duration=%s%n",
+                target, namespace, operation, concurrency, duration);
+
+        var primaryStubs = WorkflowServiceStubs.newServiceStubs(WorkflowServiceStubsOptions.newBuilder()
+                .setTarget(target)
+                .build());
+        var primary = WorkflowClient.newInstance(primaryStubs, WorkflowClientOptions.newBuilder()
+                .setNamespace(namespace)
+                .build());
+
+        try {
+            for (var channels : channelCounts) {
+                var pool = new HelloWorkflowClientPool(primary, new SimpleMeterRegistry(),
+                        channels, Duration.ofSeconds(30), Duration.ofSeconds(15));
+                try {
+                    var workflowIds = operation == Operation.SIGNAL
+                            ? startTargets(pool, concurrency, workflowTimeout)
+                            : List.<String>of();
+                    run(pool, operation, workflowIds, concurrency, warmup, workflowTimeout);
+                    print(run(pool, operation, workflowIds, concurrency, duration, workflowTimeout));
+                } finally {
+                    pool.close();
+                }
+            }
+        } finally {
+            primaryStubs.shutdown();
+        }
+    }
+
+    static BenchmarkResult run(HelloWorkflowClientPool pool, Operation operation, List<String> workflowIds,
+                               int concurrency, Duration duration, Duration workflowTimeout) {
+
+        var latencies = Collections.synchronizedList(new ArrayList<long[]>());
+        var calls = new AtomicLong();
+        var errors = new AtomicLong();
+
+        var start = System.nanoTime();
+        var deadline = start + duration.toNanos();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                var worker = i;
+                executor.execute(() -> {
+                    var local = new long[1024];
+                    var count = 0;
+                    var iteration = 0;
+                    while (System.nanoTime() < deadline) {
+                        var callStart = System.nanoTime();
+                        try {
+                            switch (operation) {
+                                case START -> start(pool.next(), newWorkflowId(), workflowTimeout);
+                                case SIGNAL -> pool.next()
+                                        .newWorkflowStub(HelloWorkflow.class, workflowIds.get((worker + iteration) % workflowIds.size()))
+                                        .langageCode(LangageCode.es);
+                            }
+                            calls.incrementAndGet();
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == local.length) {
+                            local = Arrays.copyOf(local, count * 2);
+                        }
+                        local[count++] = System.nanoTime() - callStart;
+                        iteration++;
+                    }
+                    latencies.add(Arrays.copyOf(local, count));
+                });
+            }
+        }
+
+        var elapsed = System.nanoTime() - start;
+        var all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+
+        return new BenchmarkResult(pool.size(), calls.get(), errors.get(), elapsed, all);
+    }
+
+    /**
+     * Workflows left waiting for their langageCode : signals never complete them.
+     */
+    static List<String> startTargets(HelloWorkflowClientPool pool, int count, Duration workflowTimeout) {
+        var workflowIds = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            var workflowId = newWorkflowId();
+            start(pool.next(), workflowId, workflowTimeout);
+            workflowIds.add(workflowId);
+        }
+        return workflowIds;
+    }
+
+    static void start(WorkflowClient client, String workflowId, Duration workflowTimeout) {
+        var workflow = client.newWorkflowStub(HelloWorkflow.class,
+                WorkflowOptions.newBuilder()
+                        .setWorkflowId(workflowId)
+                        .setWorkflowExecutionTimeout(workflowTimeout)
+                        // No worker polls it
+                        .setTaskQueue("hello-start-benchmark-task-queue").build());
+        WorkflowClient.start(workflow::sayHello, HelloRequest.of("bench", null));
+    }
+
+    static String newWorkflowId() {
+        return "start-bench-%s".formatted(UUID.randomUUID());
+    }
+
+    static void print(BenchmarkResult result) {
+
+        var latencies = result.latenciesNanos();
+        var seconds = result.elapsedNanos() / 1e9;
+
+        System.out.printf("""
+                        [channels=%d]
+                          throughput : %.1f calls/s (%d errors)
+                          latency    : p50 %.1f ms, p99 %.1f ms, max %.1f ms
+                        """,
+                result.channels(),
+                result.calls() / seconds,
+                result.errors(),
+                percentile(latencies, 0.50) / 1e6,
+                percentile(latencies, 0.99) / 1e6,
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+    }
+
+    static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        var index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}